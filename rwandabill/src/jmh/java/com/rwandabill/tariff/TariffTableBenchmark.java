@@ -0,0 +1,77 @@
+package com.rwandabill.tariff;
+
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.location.District;
+import com.rwandabill.location.LocationDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of pricing one bill line with the shipped tariffs, over a mix of accounts spread across all
+ * districts and consumption bands. Run with {@code -prof gc} (the profile default) to confirm that pricing
+ * allocates nothing: gc.alloc.rate.norm should be ~0 B/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TariffTableBenchmark {
+
+    private static final int ACCOUNTS = 4096;
+
+    private TariffTable table;
+    private short[] districtCodes;
+    private int[] sectorCodes;
+    private long[] liters;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        LocationDirectory locations = new LocationDirectory();
+        try (InputStream in = new ClassPathResource("reference/tariffs.csv").getInputStream()) {
+            table = TariffTable.compile(in.readAllBytes(), locations);
+        }
+        List<District> districts = locations.getDistricts();
+        Random random = new Random(42);
+        districtCodes = new short[ACCOUNTS];
+        sectorCodes = new int[ACCOUNTS];
+        liters = new long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            District district = districts.get(random.nextInt(districts.size()));
+            districtCodes[i] = (short) district.code();
+            sectorCodes[i] = district.sectors().isEmpty()
+                    ? -1
+                    : district.sectors().get(random.nextInt(district.sectors().size())).code();
+            liters[i] = random.nextInt(80_000);
+        }
+    }
+
+    @Benchmark
+    public long waterTiered() {
+        int i = next++ & (ACCOUNTS - 1);
+        return table.charge(ServiceType.WATER, districtCodes[i], sectorCodes[i], liters[i]);
+    }
+
+    @Benchmark
+    public long securityFlat() {
+        int i = next++ & (ACCOUNTS - 1);
+        return table.charge(ServiceType.SECURITY, districtCodes[i], sectorCodes[i], 0);
+    }
+}
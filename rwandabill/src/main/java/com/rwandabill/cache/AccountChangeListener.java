@@ -0,0 +1,16 @@
+package com.rwandabill.cache;
+
+/**
+ * Receives account invalidations from {@link AccountInvalidationBus}, both for writes made on this node
+ * and for writes announced by other nodes.
+ */
+public interface AccountChangeListener {
+
+    void onAccountChanged(Long id, String email);
+
+    /**
+     * Called when changes may have been missed (for example after the LISTEN connection dropped),
+     * so everything derived from account data must be discarded.
+     */
+    void onFlush();
+}
@@ -0,0 +1,234 @@
+package com.rwandabill.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps in-process account caches coherent across replicas using Postgres LISTEN/NOTIFY.
+ * <p>
+ * Writers call {@link #publish(Long, String)} inside their transaction: local listeners are invalidated
+ * immediately and again after commit, and a NOTIFY is queued on the same connection, so Postgres only
+ * delivers it to other nodes if the write commits. Every node keeps one dedicated (non-pooled) LISTEN
+ * connection; whenever it has to reconnect, notifications may have been lost, so listeners are flushed.
+ */
+@Component
+@Slf4j
+public class AccountInvalidationBus {
+
+    private static final String FLUSH_PAYLOAD = "*";
+    private static final String IDS_PAYLOAD_PREFIX = "ids:";
+    // pg_notify rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+    private static final int POLL_TIMEOUT_MILLIS = 10_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final List<AccountChangeListener> listeners;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final String channel;
+
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listenerThread;
+
+    public AccountInvalidationBus(List<AccountChangeListener> listeners,
+                                  JdbcTemplate jdbcTemplate,
+                                  DataSourceProperties dataSourceProperties,
+                                  @Value("${account-cache.invalidation.enabled:true}") boolean enabled,
+                                  @Value("${account-cache.invalidation.channel:account_changes}") String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        this.listeners = listeners;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.channel = channel;
+    }
+
+    public void publish(Long id, String email) {
+        invalidateLocally(() -> listeners.forEach(listener -> listener.onAccountChanged(id, email)));
+        notifyOtherNodes(id + "|" + (email != null ? email : ""));
+    }
+
+    /**
+     * Invalidates many accounts by id, for set-based updates that do not change emails. Ids are sent in as
+     * few notifications as the payload limit allows.
+     */
+    public void publishIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        invalidateLocally(() -> ids.forEach(id -> listeners.forEach(listener -> listener.onAccountChanged(id, null))));
+        StringBuilder payload = new StringBuilder(IDS_PAYLOAD_PREFIX);
+        for (Long id : ids) {
+            String next = String.valueOf(id);
+            if (payload.length() > IDS_PAYLOAD_PREFIX.length()
+                    && payload.length() + 1 + next.length() > MAX_PAYLOAD_LENGTH) {
+                notifyOtherNodes(payload.toString());
+                payload.setLength(IDS_PAYLOAD_PREFIX.length());
+            }
+            if (payload.length() > IDS_PAYLOAD_PREFIX.length()) {
+                payload.append(',');
+            }
+            payload.append(next);
+        }
+        notifyOtherNodes(payload.toString());
+    }
+
+    public void publishFlush() {
+        invalidateLocally(() -> listeners.forEach(AccountChangeListener::onFlush));
+        notifyOtherNodes(FLUSH_PAYLOAD);
+    }
+
+    private void invalidateLocally(Runnable invalidation) {
+        invalidation.run();
+        // A concurrent reader may re-load the pre-commit row; drop it again once the write is visible
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private void notifyOtherNodes(String payload) {
+        if (enabled) {
+            // Runs on the transaction's connection; Postgres delivers it only on commit
+            jdbcTemplate.query("select pg_notify(?, ?)", rs -> null, channel, payload);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Cross-node account invalidation is disabled");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "account-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        closeQuietly(listenConnection);
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        long backoffMillis = 1_000;
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                listenConnection = connection;
+                log.info("Listening for account changes on channel '{}'", channel);
+                // Anything published while we were not listening is lost
+                listeners.forEach(AccountChangeListener::onFlush);
+                backoffMillis = 1_000;
+                receive(connection.unwrap(PGConnection.class), connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Account invalidation listener lost its connection, retrying in {} ms: {}",
+                        backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    private void receive(PGConnection pgConnection, Connection connection) throws SQLException {
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (notifications == null || notifications.length == 0) {
+                // Idle: make sure a silently dropped connection is noticed
+                if (!connection.isValid(5)) {
+                    throw new SQLException("LISTEN connection is no longer valid");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                dispatch(notification.getParameter());
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        try {
+            if (FLUSH_PAYLOAD.equals(payload)) {
+                listeners.forEach(AccountChangeListener::onFlush);
+                return;
+            }
+            if (payload.startsWith(IDS_PAYLOAD_PREFIX)) {
+                for (String id : payload.substring(IDS_PAYLOAD_PREFIX.length()).split(",")) {
+                    Long accountId = Long.valueOf(id);
+                    listeners.forEach(listener -> listener.onAccountChanged(accountId, null));
+                }
+                return;
+            }
+            int separator = payload.indexOf('|');
+            Long id = separator > 0 ? Long.valueOf(payload.substring(0, separator)) : null;
+            String email = separator >= 0 && separator < payload.length() - 1 ? payload.substring(separator + 1) : null;
+            listeners.forEach(listener -> listener.onAccountChanged(id, email));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed account change notification '{}', flushing caches", payload, e);
+            listeners.forEach(AccountChangeListener::onFlush);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // Already closing, nothing else to do
+            }
+        }
+    }
+}
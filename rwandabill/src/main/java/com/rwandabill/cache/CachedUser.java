@@ -0,0 +1,45 @@
+package com.rwandabill.cache;
+
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.User;
+import com.rwandabill.entity.UserRole;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable copy of a {@link User} row held by {@link UserAccountCache}. Cached instead of the entity so
+ * that a shared cache entry can never be mutated or lazily initialised outside its session.
+ */
+@Value
+@Builder
+public class CachedUser {
+    Long id;
+    String email;
+    String password;
+    String fullName;
+    String telephone;
+    String district;
+    String sector;
+    UserRole role;
+    ServiceType service;
+    Boolean isActive;
+    Boolean approved;
+    Boolean emailVerified;
+
+    public static CachedUser from(User user) {
+        return CachedUser.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .fullName(user.getFullName())
+                .telephone(user.getTelephone())
+                .district(user.getDistrict())
+                .sector(user.getSector())
+                .role(user.getRole())
+                .service(user.getService())
+                .isActive(user.getIsActive())
+                .approved(user.getApproved())
+                .emailVerified(user.getEmailVerified())
+                .build();
+    }
+}
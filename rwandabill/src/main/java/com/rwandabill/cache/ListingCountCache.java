@@ -0,0 +1,35 @@
+package com.rwandabill.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of {@code count(*)} results for listings, so paging never pays for a full count
+ * and callers that ask for a total get one that is at most {@code listing-counts.ttl} old.
+ */
+@Component
+public class ListingCountCache {
+
+    private final Cache<String, Long> counts;
+
+    public ListingCountCache(MeterRegistry meterRegistry,
+                             @Value("${listing-counts.ttl:PT30S}") Duration ttl) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "listing-counts");
+    }
+
+    public long get(String key, LongSupplier counter) {
+        return counts.get(key, k -> counter.getAsLong());
+    }
+}
@@ -0,0 +1,105 @@
+package com.rwandabill.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rwandabill.repository.UserRepository;
+import com.rwandabill.security.EmailCanonicalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of {@link UserRepository} for account lookups by id and by email.
+ * <p>
+ * Rows are stored once, keyed by id; the email index only maps the normalized email to the id. Because
+ * an id never changes owner, a stale email entry at worst causes one extra id lookup, and evicting by id
+ * is enough to drop the data for both indexes. Writers invalidate through {@link AccountInvalidationBus}.
+ */
+@Component
+@Slf4j
+public class UserAccountCache implements AccountChangeListener {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, CachedUser> usersById;
+    private final Cache<String, Long> userIdsByEmail;
+
+    public UserAccountCache(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${account-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${account-cache.ttl:PT10M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.userIdsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByEmail, "users.by-email");
+    }
+
+    public Optional<CachedUser> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        // Misses are not cached: a null mapping result stores nothing
+        return Optional.ofNullable(usersById.get(id, key -> userRepository.findById(key)
+                .map(CachedUser::from)
+                .orElse(null)));
+    }
+
+    public Optional<CachedUser> findByEmail(String email) {
+        String key = EmailCanonicalizer.canonicalize(email);
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        Long id = userIdsByEmail.get(key, this::loadIdByEmail);
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        Optional<CachedUser> user = findById(id);
+        if (user.isEmpty() || !key.equals(EmailCanonicalizer.canonicalize(user.get().getEmail()))) {
+            // The id no longer belongs to this email; forget the mapping and go to the database once
+            userIdsByEmail.invalidate(key);
+            return Optional.ofNullable(loadIdByEmail(key)).flatMap(this::findById);
+        }
+        return user;
+    }
+
+    @Override
+    public void onAccountChanged(Long id, String email) {
+        if (id != null) {
+            usersById.invalidate(id);
+        }
+        String key = EmailCanonicalizer.canonicalize(email);
+        if (key != null) {
+            userIdsByEmail.invalidate(key);
+        }
+    }
+
+    @Override
+    public void onFlush() {
+        usersById.invalidateAll();
+        userIdsByEmail.invalidateAll();
+    }
+
+    private Long loadIdByEmail(String normalizedEmail) {
+        return userRepository.findByEmail(normalizedEmail)
+                .map(user -> {
+                    usersById.put(user.getId(), CachedUser.from(user));
+                    return user.getId();
+                })
+                .orElse(null);
+    }
+}
@@ -0,0 +1,77 @@
+package com.rwandabill.config;
+
+import com.rwandabill.datasource.ReadWriteRoutingDataSource;
+import com.rwandabill.datasource.ReadYourWritesTracker;
+import com.rwandabill.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the auto-configured DataSource with a primary pool, a replica pool and a routing proxy in
+ * front of them. Both pools are beans, so Spring Boot publishes hikaricp.* metrics tagged by pool name.
+ * With {@code datasource-routing.enabled=false} (the default) none of this is created.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource-routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource-routing.replica")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${datasource-routing.max-lag:PT5S}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replica, maxLag, meterRegistry);
+    }
+
+    // Picked up by Spring Boot's transaction manager customizers as a TransactionExecutionListener
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${datasource-routing.read-your-writes-window:PT5S}") Duration window,
+            @Value("${datasource-routing.max-tracked-writers:100000}") long maxTrackedWriters) {
+        return new ReadYourWritesTracker(window, maxTrackedWriters);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker,
+                                 MeterRegistry meterRegistry) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primary, replica, replicaLagMonitor, readYourWritesTracker, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -3,8 +3,11 @@ package com.rwandabill.controller;
 import com.rwandabill.dto.AuthResponse;
 import com.rwandabill.dto.LoginRequest;
 import com.rwandabill.dto.SignupRequest;
+import com.rwandabill.exception.LoginThrottledException;
+import com.rwandabill.exception.ServiceBusyException;
 import com.rwandabill.service.AuthService;
 import com.rwandabill.entity.UserRole;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -85,6 +88,8 @@ public class AuthController {
                             .success(false)
                             .message(e.getMessage())
                             .build());
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("User signup error: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -117,6 +122,8 @@ public class AuthController {
                             .success(false)
                             .message(e.getMessage())
                             .build());
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Super Admin signup error: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -152,6 +159,8 @@ public class AuthController {
                             .success(false)
                             .message(e.getMessage())
                             .build());
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Admin signup error: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -163,10 +172,12 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
-            AuthResponse response = authService.login(request);
+            AuthResponse response = authService.login(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException | LoginThrottledException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Login error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
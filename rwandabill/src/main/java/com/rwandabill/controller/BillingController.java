@@ -0,0 +1,62 @@
+package com.rwandabill.controller;
+
+import com.rwandabill.dto.BillResponse;
+import com.rwandabill.dto.BillRunRequest;
+import com.rwandabill.dto.BillRunResponse;
+import com.rwandabill.exception.ResourceNotFoundException;
+import com.rwandabill.service.BillRunService;
+import com.rwandabill.tariff.TariffRegistry;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class BillingController {
+
+    private final BillRunService billRunService;
+    private final TariffRegistry tariffRegistry;
+
+    @PostMapping("/bill-runs")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<BillRunResponse> startBillRun(@Valid @RequestBody BillRunRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(billRunService.start(request.getPeriod()));
+    }
+
+    @GetMapping("/bill-runs/{runId}")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<BillRunResponse> getBillRun(@PathVariable long runId) {
+        try {
+            return ResponseEntity.ok(billRunService.getRun(runId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/bills/me")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<BillResponse>> getMyBills() {
+        return ResponseEntity.ok(billRunService.getCurrentUserBills());
+    }
+
+    @GetMapping("/tariffs")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTariffs() {
+        return ResponseEntity.ok(Map.of(
+                "version", tariffRegistry.current().getVersion(),
+                "loadedAt", tariffRegistry.getLoadedAt()));
+    }
+
+    @PostMapping("/tariffs/reload")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> reloadTariffs() {
+        tariffRegistry.reload();
+        return getTariffs();
+    }
+}
@@ -0,0 +1,42 @@
+package com.rwandabill.controller;
+
+import com.rwandabill.location.District;
+import com.rwandabill.location.LocationDirectory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/locations")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:8080"})
+public class LocationController {
+
+    private final LocationDirectory locationDirectory;
+
+    /**
+     * The district and sector hierarchy. It only changes with a deploy, so clients may cache it for a day
+     * and revalidate with the entity tag afterwards.
+     */
+    @GetMapping
+    public ResponseEntity<List<District>> getLocations(WebRequest request) {
+        String etag = "\"" + locationDirectory.getVersion() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(locationDirectory.getDistricts());
+    }
+}
@@ -0,0 +1,56 @@
+package com.rwandabill.controller;
+
+import com.rwandabill.dto.MeterReadingImportStatus;
+import com.rwandabill.exception.ResourceNotFoundException;
+import com.rwandabill.service.MeterReadingImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/meter-readings")
+@RequiredArgsConstructor
+public class MeterReadingController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MeterReadingImportService meterReadingImportService;
+
+    @PostMapping(value = "/imports", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<MeterReadingImportStatus> importReadings(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(meterReadingImportService.submit(file));
+    }
+
+    @GetMapping("/imports/{jobId}")
+    public ResponseEntity<MeterReadingImportStatus> getImportStatus(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(meterReadingImportService.getStatus(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping(value = "/imports/{jobId}/report", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<Resource> getImportReport(@PathVariable String jobId) {
+        try {
+            return meterReadingImportService.getReportFile(jobId)
+                    .map(path -> ResponseEntity.ok()
+                            .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                            .header(HttpHeaders.CONTENT_DISPOSITION,
+                                    "attachment; filename=\"meter-import-" + jobId + "-report.csv\"")
+                            .body((Resource) new FileSystemResource(path)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
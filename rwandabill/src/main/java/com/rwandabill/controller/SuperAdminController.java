@@ -2,6 +2,7 @@ package com.rwandabill.controller;
 
 import com.rwandabill.dto.AuthResponse;
 import com.rwandabill.dto.SignupRequest;
+import com.rwandabill.exception.ServiceBusyException;
 import com.rwandabill.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +24,8 @@ public class SuperAdminController {
         try {
             AuthResponse response = authService.signupSuperAdmin(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Super admin signup error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -1,8 +1,14 @@
 package com.rwandabill.controller;
 
+import com.rwandabill.dto.BulkApprovalRequest;
+import com.rwandabill.dto.BulkApprovalResponse;
+import com.rwandabill.dto.CursorPage;
 import com.rwandabill.dto.UserApprovalRequest;
 import com.rwandabill.dto.UserResponse;
+import com.rwandabill.service.ApprovalClaimService;
+import com.rwandabill.service.BulkApprovalService;
 import com.rwandabill.service.UserService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -12,6 +18,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/user-approvals")
 @RequiredArgsConstructor
@@ -19,6 +28,8 @@ import org.springframework.web.bind.annotation.*;
 public class UserApprovalController {
 
     private final UserService userService;
+    private final BulkApprovalService bulkApprovalService;
+    private final ApprovalClaimService approvalClaimService;
 
     @GetMapping("/pending")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
@@ -27,6 +38,28 @@ public class UserApprovalController {
         return ResponseEntity.ok(userService.findPendingApprovals(pageable));
     }
 
+    @GetMapping("/pending/cursor")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<CursorPage<UserResponse>> getPendingApprovalsAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(userService.findPendingApprovals(cursor, size, includeTotal));
+    }
+
+    @PostMapping("/claims")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<List<UserResponse>> claimPendingApprovals(
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(approvalClaimService.claim(size));
+    }
+
+    @DeleteMapping("/claims")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Integer>> releaseClaims() {
+        return ResponseEntity.ok(Map.of("released", approvalClaimService.releaseClaims()));
+    }
+
     @PutMapping("/{userId}/status")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
     public ResponseEntity<UserResponse> updateUserApprovalStatus(
@@ -35,6 +68,13 @@ public class UserApprovalController {
         return ResponseEntity.ok(userService.updateUserApprovalStatus(userId, approvalRequest));
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<BulkApprovalResponse> bulkUpdateApprovalStatus(
+            @Valid @RequestBody BulkApprovalRequest request) {
+        return ResponseEntity.ok(bulkApprovalService.apply(request));
+    }
+
     @GetMapping("/{userId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
     public ResponseEntity<UserResponse> getUserApprovalStatus(@PathVariable Long userId) {
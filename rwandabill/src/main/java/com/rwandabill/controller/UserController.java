@@ -1,15 +1,37 @@
 package com.rwandabill.controller;
 
+import com.rwandabill.cache.CachedUser;
 import com.rwandabill.dto.AuthResponse;
 import com.rwandabill.dto.CreateAdminRequest;
-import com.rwandabill.entity.User;
+import com.rwandabill.dto.CursorPage;
+import com.rwandabill.dto.UserImportStatus;
+import com.rwandabill.dto.UserResponse;
+import com.rwandabill.dto.UserSearchResult;
+import com.rwandabill.dto.UserStatsResponse;
+import com.rwandabill.entity.ApprovalState;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+import com.rwandabill.exception.ResourceNotFoundException;
+import com.rwandabill.exception.ServiceBusyException;
+import com.rwandabill.service.UserExportService;
+import com.rwandabill.service.UserImportService;
 import com.rwandabill.service.UserService;
+import com.rwandabill.service.UserStatsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.Slice;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -19,7 +41,12 @@ import java.util.List;
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:8080"})
 public class UserController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final UserStatsService userStatsService;
 
     @GetMapping("/me")
     public ResponseEntity<AuthResponse> getCurrentUser() {
@@ -38,7 +65,7 @@ public class UserController {
     @GetMapping("/{userId}")
     public ResponseEntity<AuthResponse> getUserById(@PathVariable Long userId) {
         try {
-            User user = userService.getUserById(userId);
+            CachedUser user = userService.getUserById(userId);
             AuthResponse response = AuthResponse.builder()
                     .id(user.getId())
                     .email(user.getEmail())
@@ -83,6 +110,51 @@ public class UserController {
         }
     }
 
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsersAsNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userExportService.exportUsers(UserExportService.Format.NDJSON));
+    }
+
+    @GetMapping(value = "/all", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsersAsCsv() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .body(userExportService.exportUsers(UserExportService.Format.CSV));
+    }
+
+    @GetMapping("/list")
+    public ResponseEntity<CursorPage<UserResponse>> listUsers(
+            @RequestParam(defaultValue = "USER") UserRole role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(userService.listUsersByRole(role, cursor, size, includeTotal));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Slice<UserSearchResult>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) String district,
+            @RequestParam(required = false) String sector,
+            @RequestParam(required = false) ServiceType service,
+            @RequestParam(required = false) ApprovalState approvalState,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        // Trigrams need at least three characters to narrow the index scan
+        if (q.trim().length() < 3) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.searchUsers(q, district, sector, service, approvalState, page, size));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<UserStatsResponse> getUserStats(@RequestParam(required = false) String district) {
+        return ResponseEntity.ok(userStatsService.getStats(district));
+    }
+
     @GetMapping("/admins")
     public ResponseEntity<List<AuthResponse>> getAllAdmins() {
         try {
@@ -97,6 +169,21 @@ public class UserController {
         }
     }
 
+    @GetMapping(value = "/admins", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllAdminsAsNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userExportService.exportAdmins(UserExportService.Format.NDJSON));
+    }
+
+    @GetMapping(value = "/admins", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllAdminsAsCsv() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"admins.csv\"")
+                .body(userExportService.exportAdmins(UserExportService.Format.CSV));
+    }
+
     @PostMapping("/admin")
     public ResponseEntity<AuthResponse> createAdmin(@Valid @RequestBody CreateAdminRequest request) {
         try {
@@ -110,6 +197,8 @@ public class UserController {
                 request.getService()
             );
             return ResponseEntity.ok(admin);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Error creating admin: {}", e.getMessage());
             return ResponseEntity.status(400)
@@ -132,6 +221,8 @@ public class UserController {
                 request.getService()
             );
             return ResponseEntity.ok(superAdmin);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Error creating super admin: {}", e.getMessage());
             return ResponseEntity.status(400)
@@ -140,4 +231,35 @@ public class UserController {
                             .build());
         }
     }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UserImportStatus> importUsers(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(defaultValue = "false") boolean approve)
+            throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(userImportService.submit(file, approve));
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<UserImportStatus> getImportStatus(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(userImportService.getStatus(jobId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping(value = "/import/{jobId}/rejects", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<Resource> getImportRejects(@PathVariable String jobId) {
+        try {
+            return userImportService.getRejectsFile(jobId)
+                    .map(path -> ResponseEntity.ok()
+                            .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                            .header(HttpHeaders.CONTENT_DISPOSITION,
+                                    "attachment; filename=\"import-" + jobId + "-rejects.csv\"")
+                            .body((Resource) new FileSystemResource(path)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
 }
@@ -0,0 +1,6 @@
+package com.rwandabill.datasource;
+
+public enum DataSourceTarget {
+    PRIMARY,
+    REPLICA
+}
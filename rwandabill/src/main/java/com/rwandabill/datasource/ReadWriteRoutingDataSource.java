@@ -0,0 +1,64 @@
+package com.rwandabill.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to the replica pool and everything
+ * else to the primary. Falls back to the primary while the replica lags too far behind, and for a short
+ * window after the current user's own write so they always read what they just changed.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * read-only flag is only known once the transaction has begun, after the connection would otherwise
+ * already have been taken.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Map<DataSourceTarget, Counter> readCounters = new EnumMap<>(DataSourceTarget.class);
+
+    public ReadWriteRoutingDataSource(DataSource primary,
+                                      DataSource replica,
+                                      ReplicaLagMonitor lagMonitor,
+                                      ReadYourWritesTracker readYourWritesTracker,
+                                      MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        setTargetDataSources(Map.of(DataSourceTarget.PRIMARY, primary, DataSourceTarget.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        for (DataSourceTarget target : DataSourceTarget.values()) {
+            readCounters.put(target, Counter.builder("datasource.routing.reads")
+                    .description("Read-only transactions by the pool that served them")
+                    .tag("target", target.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return DataSourceTarget.PRIMARY;
+        }
+        DataSourceTarget target = lagMonitor.isReplicaUsable()
+                && !readYourWritesTracker.hasRecentWrite(currentUser())
+                ? DataSourceTarget.REPLICA
+                : DataSourceTarget.PRIMARY;
+        readCounters.get(target).increment();
+        return target;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
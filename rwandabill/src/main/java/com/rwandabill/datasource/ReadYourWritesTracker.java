@@ -0,0 +1,42 @@
+package com.rwandabill.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users committed a write recently. Registered as a transaction execution listener, so
+ * every committed read-write transaction of an authenticated user pins that user's reads to the primary
+ * for the configured window.
+ */
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maxTrackedUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null) {
+            recentWriters.put(authentication.getName(), Boolean.TRUE);
+        }
+    }
+
+    public boolean hasRecentWrite(String user) {
+        return user != null && recentWriters.getIfPresent(user) != null;
+    }
+}
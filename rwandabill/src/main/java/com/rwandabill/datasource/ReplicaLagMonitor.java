@@ -0,0 +1,68 @@
+package com.rwandabill.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Polls the replica for its replay lag. Reads are routed to the replica only while the last probe
+ * succeeded and reported a lag within {@code max-lag}; a failed probe counts as unusable.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Zero when the replica has replayed everything it received (an idle primary would otherwise look
+    // like growing lag), and zero on a server that is not a standby at all
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxLag;
+
+    private volatile long lagMillis = -1;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.replicaJdbcTemplate.setQueryTimeout(5);
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Replica replay lag in milliseconds, -1 when the last probe failed")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource-routing.lag-check-interval:PT2S}")
+    public void probe() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            lagMillis = lag != null ? lag.longValue() : 0;
+            usable = lagMillis <= maxLag.toMillis();
+        } catch (RuntimeException e) {
+            lagMillis = -1;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica lag probe failed, routing reads to the primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (wasUsable != usable) {
+            log.info("Replica lag {} ms, reads now go to the {}", lagMillis, usable ? "replica" : "primary");
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+}
@@ -0,0 +1,36 @@
+package com.rwandabill.dto;
+
+import com.rwandabill.entity.Bill;
+import com.rwandabill.entity.BillStatus;
+import com.rwandabill.entity.ServiceType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillResponse {
+    private Long id;
+    private ServiceType service;
+    private YearMonth period;
+    private long amount;
+    private BillStatus status;
+    private LocalDate dueDate;
+
+    public static BillResponse fromEntity(Bill bill) {
+        return BillResponse.builder()
+                .id(bill.getId())
+                .service(bill.getService())
+                .period(YearMonth.from(bill.getPeriod()))
+                .amount(bill.getAmount())
+                .status(bill.getStatus())
+                .dueDate(bill.getDueDate())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.rwandabill.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillRunRequest {
+
+    // Billing month, e.g. "2026-10"
+    @NotNull(message = "Period is required")
+    private YearMonth period;
+}
@@ -0,0 +1,43 @@
+package com.rwandabill.dto;
+
+import com.rwandabill.entity.BillRunStatus;
+import com.rwandabill.repository.BillRunRepository.RunSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillRunResponse {
+    private Long id;
+    private YearMonth period;
+    private BillRunStatus status;
+    private String startedBy;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int partitions;
+    private int partitionsDone;
+    private int partitionsFailed;
+    private long billsCreated;
+
+    public static BillRunResponse fromSummary(RunSummary summary) {
+        return BillRunResponse.builder()
+                .id(summary.id())
+                .period(YearMonth.from(summary.period()))
+                .status(summary.status())
+                .startedBy(summary.startedBy())
+                .startedAt(summary.startedAt())
+                .finishedAt(summary.finishedAt())
+                .partitions(summary.partitions())
+                .partitionsDone(summary.partitionsDone())
+                .partitionsFailed(summary.partitionsFailed())
+                .billsCreated(summary.billsCreated())
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.rwandabill.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Either an explicit list of user ids, or a filter over pending users (district, sector, createdBefore).
+ */
+@Data
+public class BulkApprovalRequest {
+
+    @Size(max = 50_000, message = "At most 50000 user ids per request")
+    private List<Long> userIds;
+
+    private String district;
+    private String sector;
+    private LocalDateTime createdBefore;
+
+    private boolean approve;
+    private String rejectionReason;
+
+    @JsonIgnore
+    public boolean hasUserIds() {
+        return userIds != null && !userIds.isEmpty();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Provide userIds or at least one filter (district, sector, createdBefore)")
+    public boolean isTargetSpecified() {
+        return hasUserIds() || district != null || sector != null || createdBefore != null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.rwandabill.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkApprovalResponse {
+
+    public enum Status {
+        UPDATED,
+        SKIPPED,   // exists but is not in a state this action applies to, or is leased to another approver
+        NOT_FOUND
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Outcome {
+        private Long userId;
+        private Status status;
+    }
+
+    private boolean approve;
+    private int requested;
+    private int updated;
+    private List<Outcome> outcomes;
+}
@@ -0,0 +1,19 @@
+package com.rwandabill.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;     // null on the last page
+    private boolean hasMore;
+    private Long approximateTotal; // only when requested; may lag behind by the count cache TTL
+}
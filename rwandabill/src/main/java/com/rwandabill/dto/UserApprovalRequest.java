@@ -6,4 +6,6 @@ import lombok.Data;
 public class UserApprovalRequest {
     private boolean approve;
     private String rejectionReason;
+    // Version the approver last saw; a stale value is rejected with 409 instead of overwriting
+    private Long version;
 }
@@ -29,6 +29,9 @@ public class UserResponse {
     private String approvedBy;
     private String rejectionReason;
     private boolean emailVerified;
+    private String claimedBy;
+    private LocalDateTime claimExpiresAt;
+    private Long version;
 
     public static UserResponse fromEntity(com.rwandabill.entity.User user) {
         return UserResponse.builder()
@@ -47,6 +50,32 @@ public class UserResponse {
                 .approvedBy(user.getApprovedBy() != null ? user.getApprovedBy().getEmail() : null)
                 .rejectionReason(user.getRejectionReason())
                 .emailVerified(user.getEmailVerified())
+                .claimedBy(user.getClaimedBy())
+                .claimExpiresAt(user.getClaimExpiresAt())
+                .version(user.getVersion())
+                .build();
+    }
+
+    public static UserResponse fromSummary(UserSummary summary) {
+        return UserResponse.builder()
+                .id(summary.id())
+                .email(summary.email())
+                .fullName(summary.fullName())
+                .telephone(summary.telephone())
+                .district(summary.district())
+                .sector(summary.sector())
+                .role(summary.role())
+                .service(summary.service())
+                .isActive(Boolean.TRUE.equals(summary.isActive()))
+                .approved(Boolean.TRUE.equals(summary.approved()))
+                .createdAt(summary.createdAt())
+                .approvedAt(summary.approvedAt())
+                .approvedBy(summary.approvedByEmail())
+                .rejectionReason(summary.rejectionReason())
+                .emailVerified(Boolean.TRUE.equals(summary.emailVerified()))
+                .claimedBy(summary.claimedBy())
+                .claimExpiresAt(summary.claimExpiresAt())
+                .version(summary.version())
                 .build();
     }
 }
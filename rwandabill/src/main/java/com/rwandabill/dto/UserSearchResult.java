@@ -0,0 +1,17 @@
+package com.rwandabill.dto;
+
+import com.rwandabill.entity.ApprovalState;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+
+public record UserSearchResult(Long id,
+                               String email,
+                               String fullName,
+                               String telephone,
+                               String district,
+                               String sector,
+                               UserRole role,
+                               ServiceType service,
+                               ApprovalState approvalState,
+                               double score) {
+}
@@ -0,0 +1,13 @@
+package com.rwandabill.dto;
+
+import com.rwandabill.entity.ApprovalState;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+
+public record UserStatsBucket(String district,
+                              String sector,
+                              ServiceType service,
+                              UserRole role,
+                              ApprovalState approvalState,
+                              long count) {
+}
@@ -0,0 +1,25 @@
+package com.rwandabill.dto;
+
+import com.rwandabill.entity.ApprovalState;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatsResponse {
+    private long total;
+    private Map<UserRole, Long> byRole;
+    private Map<ApprovalState, Long> byApprovalState;
+    private Map<ServiceType, Long> byService;
+    private Map<String, Long> byDistrict;
+    private List<UserStatsBucket> buckets;
+}
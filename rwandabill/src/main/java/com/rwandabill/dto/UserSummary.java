@@ -0,0 +1,32 @@
+package com.rwandabill.dto;
+
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model selected directly by JPQL constructor expressions in
+ * {@link com.rwandabill.repository.UserRepository}; never a managed entity. The approver email is
+ * joined in the same query instead of being loaded through the lazy {@code approvedBy} association.
+ */
+public record UserSummary(Long id,
+                          String email,
+                          String fullName,
+                          String telephone,
+                          String district,
+                          String sector,
+                          Short districtCode,
+                          UserRole role,
+                          ServiceType service,
+                          Boolean isActive,
+                          Boolean approved,
+                          LocalDateTime createdAt,
+                          LocalDateTime approvedAt,
+                          String approvedByEmail,
+                          String rejectionReason,
+                          Boolean emailVerified,
+                          String claimedBy,
+                          LocalDateTime claimExpiresAt,
+                          Long version) {
+}
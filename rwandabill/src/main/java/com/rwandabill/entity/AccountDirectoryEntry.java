@@ -0,0 +1,81 @@
+package com.rwandabill.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.io.Serializable;
+
+/**
+ * Read-only view over the users, admins and superadmins tables so an account can be resolved by email
+ * in a single round trip. Postgres pushes the email predicate into each branch of the UNION ALL, so a
+ * lookup is one unique-index probe per table rather than three separate queries.
+ */
+@Entity
+@Immutable
+@Subselect("""
+        select 'USERS' as source, 0 as precedence, u.id, u.email, u.password, u.full_name, u.telephone,
+               u.district, u.sector, u.role, u.service, u.is_active, u.approved, u.email_verified
+        from users u
+        union all
+        select 'ADMINS' as source, 1 as precedence, a.id, a.email, a.password, a.full_name, a.telephone,
+               a.district, a.sector, a.role, a.service, a.is_active, a.approved, a.email_verified
+        from admins a
+        union all
+        select 'SUPER_ADMINS' as source, 2 as precedence, s.id, s.email, s.password, s.full_name, s.telephone,
+               s.district, s.sector, s.role, cast(null as varchar(255)) as service, s.is_active, s.approved,
+               s.email_verified
+        from superadmins s
+        """)
+@Synchronize({"users", "admins", "superadmins"})
+@IdClass(AccountDirectoryEntry.Key.class)
+@Getter
+@NoArgsConstructor
+public class AccountDirectoryEntry {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private AccountSource source;
+
+    @Id
+    private Long id;
+
+    private int precedence;
+
+    private String email;
+
+    private String password;
+
+    private String fullName;
+
+    private String telephone;
+
+    private String district;
+
+    private String sector;
+
+    @Enumerated(EnumType.STRING)
+    private UserRole role;
+
+    @Enumerated(EnumType.STRING)
+    private ServiceType service;
+
+    private Boolean isActive;
+
+    private Boolean approved;
+
+    private Boolean emailVerified;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private AccountSource source;
+        private Long id;
+    }
+}
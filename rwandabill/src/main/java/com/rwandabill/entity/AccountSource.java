@@ -0,0 +1,11 @@
+package com.rwandabill.entity;
+
+/**
+ * Table an account lives in. Declaration order is the precedence used when the same email
+ * exists in more than one table.
+ */
+public enum AccountSource {
+    USERS,
+    ADMINS,
+    SUPER_ADMINS
+}
@@ -0,0 +1,11 @@
+package com.rwandabill.entity;
+
+/**
+ * Approval state of an account as counted in the user_stats table: approved, rejected (not approved and
+ * a rejection reason recorded) or pending.
+ */
+public enum ApprovalState {
+    PENDING,
+    APPROVED,
+    REJECTED
+}
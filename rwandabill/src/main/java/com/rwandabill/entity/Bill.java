@@ -0,0 +1,58 @@
+package com.rwandabill.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A user's bill for one service and billing period. Bills are written in batches by the bill run engine
+ * (see {@code BillJdbcRepository}); this mapping is used to read them.
+ */
+@Entity
+@Table(name = "bills")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Bill {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "bill_run_id")
+    private Long billRunId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ServiceType service;
+
+    // First day of the billed month
+    @Column(nullable = false)
+    private LocalDate period;
+
+    @Column(name = "district_code", nullable = false)
+    private Short districtCode;
+
+    // Whole Rwandan francs
+    @Column(nullable = false)
+    private Long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BillStatus status;
+
+    @Column(nullable = false)
+    private LocalDate dueDate;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.rwandabill.entity;
+
+public enum BillRunStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
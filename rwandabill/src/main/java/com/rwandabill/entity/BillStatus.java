@@ -0,0 +1,7 @@
+package com.rwandabill.entity;
+
+public enum BillStatus {
+    ISSUED,
+    PAID,
+    CANCELLED
+}
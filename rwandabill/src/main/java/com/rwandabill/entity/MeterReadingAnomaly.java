@@ -0,0 +1,8 @@
+package com.rwandabill.entity;
+
+public enum MeterReadingAnomaly {
+    // The register is below the previous reading (meter replaced, rolled over or misread)
+    NEGATIVE_USAGE,
+    // Usage far above the customer's recent average for the same number of days
+    SPIKE
+}
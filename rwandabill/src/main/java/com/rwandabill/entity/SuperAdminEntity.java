@@ -1,5 +1,6 @@
 package com.rwandabill.entity;
 
+import com.rwandabill.security.EmailCanonicalizer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,7 +20,8 @@ public class SuperAdminEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Unique as lower(email), see the migrations; always stored canonical
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -37,6 +39,12 @@ public class SuperAdminEntity {
     @Column(nullable = false)
     private String sector;
 
+    @Column(name = "district_code")
+    private Short districtCode;
+
+    @Column(name = "sector_code")
+    private Integer sectorCode;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private UserRole role = UserRole.SUPER_ADMIN; // Always SUPER_ADMIN for this entity
@@ -58,6 +66,7 @@ public class SuperAdminEntity {
 
     @PrePersist
     protected void onCreate() {
+        email = EmailCanonicalizer.canonicalize(email);
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         isActive = true;
@@ -70,6 +79,7 @@ public class SuperAdminEntity {
 
     @PreUpdate
     protected void onUpdate() {
+        email = EmailCanonicalizer.canonicalize(email);
         updatedAt = LocalDateTime.now();
     }
 }
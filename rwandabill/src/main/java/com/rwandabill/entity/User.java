@@ -1,6 +1,7 @@
 package com.rwandabill.entity;
 
 import com.rwandabill.entity.ServiceType;
+import com.rwandabill.security.EmailCanonicalizer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,7 +26,8 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Unique as lower(email), see the migrations; always stored canonical
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -43,6 +45,13 @@ public class User {
     @Column(nullable = false)
     private String sector;
 
+    // Codes from the location dictionary; null until resolved (sector also when its district lists none)
+    @Column(name = "district_code")
+    private Short districtCode;
+
+    @Column(name = "sector_code")
+    private Integer sectorCode;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private UserRole role = UserRole.USER; // Always USER for this entity
@@ -79,8 +88,20 @@ public class User {
     @Column(name = "verification_token", length = 64, nullable = true)
     private String verificationToken;
 
+    // Lease on a pending user handed out by the approval claim queue; expired leases are free to take
+    @Column(name = "claimed_by", nullable = true)
+    private String claimedBy;
+
+    @Column(name = "claim_expires_at", nullable = true)
+    private LocalDateTime claimExpiresAt;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
+        email = EmailCanonicalizer.canonicalize(email);
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         isActive = false; // Users are inactive until approved
@@ -92,6 +113,7 @@ public class User {
 
     @PreUpdate
     protected void onUpdate() {
+        email = EmailCanonicalizer.canonicalize(email);
         updatedAt = LocalDateTime.now();
     }
 }
@@ -0,0 +1,11 @@
+package com.rwandabill.exception;
+
+/**
+ * Thrown when an approver acts on a pending user that is currently leased to another approver.
+ * Mapped to 409 Conflict by {@link GlobalExceptionHandler}.
+ */
+public class ClaimConflictException extends RuntimeException {
+    public ClaimConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.rwandabill.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidLocationException extends RuntimeException {
+    public InvalidLocationException(String message) {
+        super(message);
+    }
+}
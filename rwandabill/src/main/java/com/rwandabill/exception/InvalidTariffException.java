@@ -0,0 +1,15 @@
+package com.rwandabill.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidTariffException extends RuntimeException {
+    public InvalidTariffException(String message) {
+        super(message);
+    }
+
+    public InvalidTariffException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.rwandabill.exception;
+
+/**
+ * Thrown when too many failed logins were recorded for an email or client address.
+ * Mapped to 429 Too Many Requests with a Retry-After header by {@link GlobalExceptionHandler}.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
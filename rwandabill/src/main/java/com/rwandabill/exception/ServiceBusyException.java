@@ -0,0 +1,19 @@
+package com.rwandabill.exception;
+
+/**
+ * Thrown when a bounded resource (such as the password hashing pool) cannot accept more work.
+ * Mapped to 503 Service Unavailable with a Retry-After header by {@link GlobalExceptionHandler}.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,9 @@
+package com.rwandabill.location;
+
+import java.util.List;
+
+/**
+ * A district with its sectors; {@code sectors} is empty where the dictionary does not list them yet.
+ */
+public record District(int code, String name, String province, List<Sector> sectors) {
+}
@@ -0,0 +1,93 @@
+package com.rwandabill.location;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fills in district and sector codes for rows written before the codes existed (or by older instances
+ * during a rolling deploy), rewriting the names to their official spelling on the way. Each table is
+ * matched against the whole dictionary in one statement; rows whose names match nothing keep null codes
+ * and are reported.
+ */
+@Component
+@ConditionalOnProperty(value = "locations.backfill-on-startup", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class LocationBackfill {
+
+    private static final List<String> TABLES = List.of("users", "admins", "superadmins");
+
+    // Same normalization as LocationDirectory.key
+    private static final String DISTRICT_KEY = "lower(regexp_replace(trim(t.district), '\\s+', ' ', 'g'))";
+    private static final String SECTOR_KEY = "lower(regexp_replace(trim(t.sector), '\\s+', ' ', 'g'))";
+
+    private final LocationDirectory locationDirectory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        for (String table : TABLES) {
+            int districts = backfillDistricts(table);
+            int sectors = backfillSectors(table);
+            Integer unresolved = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM " + table + " WHERE district_code IS NULL", Integer.class);
+            if (districts > 0 || sectors > 0) {
+                log.info("Location codes backfilled on {}: {} districts, {} sectors", table, districts, sectors);
+            }
+            if (unresolved != null && unresolved > 0) {
+                log.warn("{} rows in {} have a district that is not in the location dictionary", unresolved, table);
+            }
+        }
+    }
+
+    private int backfillDistricts(String table) {
+        List<District> districts = locationDirectory.getDistricts();
+        List<Object> args = new ArrayList<>();
+        for (District district : districts) {
+            args.add(district.code());
+            args.add(district.name());
+            args.add(LocationDirectory.key(district.name()));
+        }
+        return jdbcTemplate.update(
+                "UPDATE " + table + " t SET district_code = d.code, district = d.name " +
+                "FROM (VALUES " + rows(districts.size(), "(CAST(? AS smallint), ?, ?)") + ") AS d(code, name, key) " +
+                "WHERE t.district_code IS NULL AND " + DISTRICT_KEY + " = d.key",
+                args.toArray());
+    }
+
+    private int backfillSectors(String table) {
+        List<Object> args = new ArrayList<>();
+        int count = 0;
+        for (District district : locationDirectory.getDistricts()) {
+            for (Sector sector : district.sectors()) {
+                args.add(sector.code());
+                args.add(district.code());
+                args.add(sector.name());
+                args.add(LocationDirectory.key(sector.name()));
+                count++;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update(
+                "UPDATE " + table + " t SET sector_code = s.code, sector = s.name " +
+                "FROM (VALUES " + rows(count, "(?, CAST(? AS smallint), ?, ?)") + ") " +
+                "AS s(code, district_code, name, key) " +
+                "WHERE t.sector_code IS NULL AND t.district_code = s.district_code AND " + SECTOR_KEY + " = s.key",
+                args.toArray());
+    }
+
+    private static String rows(int count, String row) {
+        return String.join(", ", Collections.nCopies(count, row));
+    }
+}
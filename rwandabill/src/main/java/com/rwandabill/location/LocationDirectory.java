@@ -0,0 +1,187 @@
+package com.rwandabill.location;
+
+import com.rwandabill.exception.InvalidLocationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Rwanda's districts and sectors, loaded once from {@code reference/rwanda-locations.csv} into immutable
+ * maps. Entities reference places by code; names handed out by the directory are single shared instances,
+ * so resolved rows never carry differently spelled or padded copies of the same place.
+ */
+@Component
+@Slf4j
+public class LocationDirectory {
+
+    private static final String RESOURCE = "reference/rwanda-locations.csv";
+
+    private final List<District> districts;
+    private final Map<Integer, District> districtsByCode;
+    private final Map<String, District> districtsByKey;
+    // Sector lookups are keyed per district: sector names repeat across districts (Remera, Kigali...)
+    private final Map<Integer, Map<String, Sector>> sectorsByDistrict;
+    private final String version;
+
+    public LocationDirectory() {
+        byte[] content = readResource();
+        Map<Integer, String[]> districtRows = new LinkedHashMap<>();
+        Map<Integer, List<Sector>> sectorRows = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+            String line;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                int code = Integer.parseInt(fields[1].trim());
+                String name = fields[2].trim().intern();
+                if ("district".equals(fields[0])) {
+                    districtRows.put(code, new String[]{name, fields[3].trim().intern()});
+                } else {
+                    int districtCode = Integer.parseInt(fields[3].trim());
+                    sectorRows.computeIfAbsent(districtCode, key -> new ArrayList<>()).add(new Sector(code, name));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + RESOURCE, e);
+        }
+
+        List<District> loaded = new ArrayList<>();
+        Map<Integer, District> byCode = new HashMap<>();
+        Map<String, District> byKey = new HashMap<>();
+        Map<Integer, Map<String, Sector>> sectorsByKey = new HashMap<>();
+        districtRows.forEach((code, row) -> {
+            List<Sector> sectors = sectorRows.getOrDefault(code, List.of()).stream()
+                    .sorted(Comparator.comparingInt(Sector::code))
+                    .toList();
+            if (sectors.isEmpty()) {
+                throw new IllegalStateException("No sectors listed for district " + code);
+            }
+            District district = new District(code, row[0], row[1], sectors);
+            loaded.add(district);
+            byCode.put(code, district);
+            byKey.put(key(district.name()), district);
+            Map<String, Sector> sectorKeys = new HashMap<>();
+            sectors.forEach(sector -> sectorKeys.put(key(sector.name()), sector));
+            sectorsByKey.put(code, Map.copyOf(sectorKeys));
+        });
+        sectorRows.keySet().stream()
+                .filter(code -> !byCode.containsKey(code))
+                .findAny()
+                .ifPresent(code -> {
+                    throw new IllegalStateException("Sectors listed for unknown district " + code);
+                });
+        loaded.sort(Comparator.comparingInt(District::code));
+
+        this.districts = List.copyOf(loaded);
+        this.districtsByCode = Map.copyOf(byCode);
+        this.districtsByKey = Map.copyOf(byKey);
+        this.sectorsByDistrict = Map.copyOf(sectorsByKey);
+        this.version = sha256(content);
+        log.info("Loaded {} districts and {} sectors", districts.size(),
+                sectorsByDistrict.values().stream().mapToInt(Map::size).sum());
+    }
+
+    public List<District> getDistricts() {
+        return districts;
+    }
+
+    /**
+     * Content hash of the dictionary, usable as an HTTP entity tag.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public Optional<District> findDistrict(int code) {
+        return Optional.ofNullable(districtsByCode.get(code));
+    }
+
+    public Optional<District> findDistrict(String name) {
+        return name != null ? Optional.ofNullable(districtsByKey.get(key(name))) : Optional.empty();
+    }
+
+    public Optional<Sector> findSector(int districtCode, String name) {
+        Map<String, Sector> sectors = sectorsByDistrict.get(districtCode);
+        return sectors != null && name != null ? Optional.ofNullable(sectors.get(key(name))) : Optional.empty();
+    }
+
+    /**
+     * Validates a district and sector and returns them with codes and official names.
+     */
+    public ResolvedLocation resolve(String districtName, String sectorName) {
+        District district = findDistrict(districtName)
+                .orElseThrow(() -> new InvalidLocationException("Unknown district: " + districtName));
+        Sector sector = findSector(district.code(), sectorName)
+                .orElseThrow(() -> new InvalidLocationException(
+                        "Unknown sector in " + district.name() + ": " + sectorName));
+        return new ResolvedLocation((short) district.code(), district.name(), sector.code(), sector.name());
+    }
+
+    /**
+     * Turns optional district and sector query parameters into a {@link LocationFilter}. An unknown district
+     * is rejected; a sector without a district can only be matched by name.
+     */
+    public LocationFilter resolveFilter(String districtName, String sectorName) {
+        if (districtName == null) {
+            return sectorName != null ? new LocationFilter(null, null, sectorName.trim()) : LocationFilter.NONE;
+        }
+        if (sectorName == null) {
+            District district = findDistrict(districtName)
+                    .orElseThrow(() -> new InvalidLocationException("Unknown district: " + districtName));
+            return new LocationFilter((short) district.code(), null, null);
+        }
+        ResolvedLocation location = resolve(districtName, sectorName);
+        return new LocationFilter(location.districtCode(), location.sectorCode(), null);
+    }
+
+    /**
+     * Lookup key for a place name: trimmed, inner whitespace collapsed, lower-cased. Also applied in SQL by
+     * {@link LocationBackfill}.
+     */
+    static String key(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] readResource() {
+        try (InputStream in = new ClassPathResource(RESOURCE).getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + RESOURCE, e);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.rwandabill.location;
+
+/**
+ * Optional district/sector criteria for account queries. Codes are compared where known; {@code sector}
+ * is only set when the sector could not be resolved to a code (district not given, or its sectors not
+ * listed) and is then matched by name.
+ */
+public record LocationFilter(Short districtCode, Integer sectorCode, String sector) {
+
+    public static final LocationFilter NONE = new LocationFilter(null, null, null);
+}
@@ -0,0 +1,9 @@
+package com.rwandabill.location;
+
+/**
+ * A district and sector checked against the {@link LocationDirectory}, with names in their official
+ * spelling. {@code sectorCode} is null when the district's sectors are not in the dictionary; the sector
+ * name is then kept as entered (trimmed).
+ */
+public record ResolvedLocation(short districtCode, String district, Integer sectorCode, String sector) {
+}
@@ -0,0 +1,4 @@
+package com.rwandabill.location;
+
+public record Sector(int code, String name) {
+}
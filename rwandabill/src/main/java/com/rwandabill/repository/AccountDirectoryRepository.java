@@ -0,0 +1,24 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.entity.AccountDirectoryEntry;
+import com.rwandabill.security.EmailCanonicalizer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountDirectoryRepository
+        extends org.springframework.data.repository.Repository<AccountDirectoryEntry, AccountDirectoryEntry.Key> {
+
+    default Optional<AccountDirectoryEntry> findFirstByEmailOrderByPrecedenceAsc(String email) {
+        return findByCanonicalEmail(EmailCanonicalizer.canonicalize(email), Limit.of(1)).stream().findFirst();
+    }
+
+    // The predicate is pushed into every UNION ALL branch, one lower(email) index probe per table
+    @Query("SELECT e FROM AccountDirectoryEntry e WHERE lower(e.email) = :email ORDER BY e.precedence")
+    List<AccountDirectoryEntry> findByCanonicalEmail(@Param("email") String email, Limit limit);
+}
@@ -0,0 +1,57 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.entity.AdminEntity;
+import com.rwandabill.entity.UserRole;
+import com.rwandabill.security.EmailCanonicalizer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Single-statement writes on the admins table. Postgres-specific.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AdminJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts {@code admin} unless its email is already registered and fills in the generated id and
+     * timestamps. Returns false when the unique constraint on email turned the insert into a no-op.
+     * New rows are active, as enforced by {@code AdminEntity#onCreate} for JPA inserts.
+     */
+    public boolean insertIfAbsent(AdminEntity admin) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Optional<Long> id = jdbcTemplate.queryForList(
+                "INSERT INTO admins (email, password, full_name, telephone, district, sector, district_code, " +
+                "sector_code, role, service, is_active, email_verified, approved, approved_at, approved_by, " +
+                "created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, true, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (lower(email)) DO NOTHING " +
+                "RETURNING id",
+                Long.class,
+                EmailCanonicalizer.canonicalize(admin.getEmail()), admin.getPassword(), admin.getFullName(), admin.getTelephone(),
+                admin.getDistrict(), admin.getSector(), admin.getDistrictCode(), admin.getSectorCode(),
+                admin.getRole() != null ? admin.getRole().name() : UserRole.ADMIN.name(),
+                admin.getService().name(), Boolean.TRUE.equals(admin.getEmailVerified()),
+                Boolean.TRUE.equals(admin.getApproved()),
+                admin.getApprovedAt() != null ? Timestamp.valueOf(admin.getApprovedAt()) : null,
+                admin.getApprovedBy(), timestamp, timestamp)
+                .stream().findFirst();
+        if (id.isEmpty()) {
+            return false;
+        }
+        admin.setId(id.get());
+        admin.setEmail(EmailCanonicalizer.canonicalize(admin.getEmail()));
+        admin.setIsActive(true);
+        admin.setCreatedAt(now);
+        admin.setUpdatedAt(now);
+        return true;
+    }
+}
@@ -1,13 +1,27 @@
 package com.rwandabill.repository;
 
 import com.rwandabill.entity.AdminEntity;
+import com.rwandabill.security.EmailCanonicalizer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface AdminRepository extends JpaRepository<AdminEntity, Long> {
-    Optional<AdminEntity> findByEmail(String email);
-    boolean existsByEmail(String email);
+    default Optional<AdminEntity> findByEmail(String email) {
+        return findByCanonicalEmail(EmailCanonicalizer.canonicalize(email));
+    }
+
+    default boolean existsByEmail(String email) {
+        return existsByCanonicalEmail(EmailCanonicalizer.canonicalize(email));
+    }
+
+    @Query("SELECT a FROM AdminEntity a WHERE lower(a.email) = :email")
+    Optional<AdminEntity> findByCanonicalEmail(@Param("email") String email);
+
+    @Query("SELECT count(a) > 0 FROM AdminEntity a WHERE lower(a.email) = :email")
+    boolean existsByCanonicalEmail(@Param("email") String email);
 }
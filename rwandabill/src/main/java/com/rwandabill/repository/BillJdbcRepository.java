@@ -0,0 +1,61 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.entity.BillStatus;
+import com.rwandabill.entity.ServiceType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Batched writes on the bills table for the bill run engine. Postgres-specific.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BillJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all bills as one JDBC batch. Bills that already exist for the same user, service and period
+     * are skipped by the unique constraint, which is what makes re-running a period safe.
+     */
+    public void insertBills(List<NewBill> bills) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO bills (user_id, bill_run_id, service, period, district_code, amount, status, " +
+                "due_date, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, '" + BillStatus.ISSUED.name() + "', ?, ?) " +
+                "ON CONFLICT (user_id, service, period) DO NOTHING",
+                bills, bills.size(), (ps, bill) -> {
+                    ps.setLong(1, bill.userId());
+                    ps.setLong(2, bill.billRunId());
+                    ps.setString(3, bill.service().name());
+                    ps.setDate(4, Date.valueOf(bill.period()));
+                    ps.setShort(5, bill.districtCode());
+                    ps.setLong(6, bill.amount());
+                    ps.setDate(7, Date.valueOf(bill.dueDate()));
+                    ps.setTimestamp(8, Timestamp.valueOf(bill.createdAt()));
+                });
+    }
+
+    /**
+     * How many of {@code userIds} have a bill from run {@code billRunId}. Batch update counts are not
+     * reliable once the driver rewrites batches into multi-row inserts, so inserted rows are counted here.
+     */
+    public int countRunBills(long billRunId, ServiceType service, LocalDate period, Collection<Long> userIds) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM bills WHERE user_id = ANY(?) AND service = ? AND period = ? AND bill_run_id = ?",
+                Integer.class, userIds.toArray(Long[]::new), service.name(), Date.valueOf(period), billRunId);
+        return count != null ? count : 0;
+    }
+
+    public record NewBill(long userId, long billRunId, ServiceType service, LocalDate period, short districtCode,
+                          long amount, LocalDate dueDate, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.entity.Bill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BillRepository extends JpaRepository<Bill, Long> {
+
+    List<Bill> findByUserIdOrderByPeriodDescServiceAsc(Long userId);
+}
@@ -0,0 +1,217 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.entity.BillRunStatus;
+import com.rwandabill.entity.ServiceType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bill runs and their (district, service) partitions. Partitions are claimed with a conditional update so
+ * that several instances can share a run; a running partition refreshes {@code updated_at} with every
+ * checkpoint, and one that has not done so for a while is considered abandoned and may be claimed again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BillRunRepository {
+
+    private static final String BILLABLE_USER =
+            "role = 'USER' AND approved = true AND is_active = true";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the run for {@code period}, creating it if needed. An existing run that is not running is
+     * reopened, and its failed partitions are queued again.
+     */
+    public long openRun(LocalDate period, String startedBy, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.update(
+                "INSERT INTO bill_runs (period, status, started_by, started_at) VALUES (?, 'RUNNING', ?, ?) " +
+                "ON CONFLICT (period) DO UPDATE SET status = 'RUNNING', started_by = EXCLUDED.started_by, " +
+                "started_at = EXCLUDED.started_at, finished_at = NULL " +
+                "WHERE bill_runs.status <> 'RUNNING'",
+                Date.valueOf(period), startedBy, timestamp);
+        Long runId = jdbcTemplate.queryForObject(
+                "SELECT id FROM bill_runs WHERE period = ?", Long.class, Date.valueOf(period));
+        jdbcTemplate.update(
+                "UPDATE bill_run_partitions SET status = 'PENDING', error = NULL, updated_at = ? " +
+                "WHERE run_id = ? AND status = 'FAILED'",
+                timestamp, runId);
+        return runId;
+    }
+
+    /**
+     * Adds a partition for every (district, service) that has billable users and is not planned yet.
+     * Returns the number of partitions added.
+     */
+    public int planPartitions(long runId, LocalDateTime now) {
+        return jdbcTemplate.update(
+                "INSERT INTO bill_run_partitions (run_id, district_code, service, status, updated_at) " +
+                "SELECT DISTINCT ?, district_code, service, 'PENDING', ? FROM users " +
+                "WHERE " + BILLABLE_USER + " AND district_code IS NOT NULL AND service IS NOT NULL " +
+                "ON CONFLICT (run_id, district_code, service) DO NOTHING",
+                runId, Timestamp.valueOf(now));
+    }
+
+    /**
+     * (district, service) pairs of the run's partitions that are still waiting or running.
+     */
+    public List<ServiceArea> findOpenServiceAreas(long runId) {
+        return jdbcTemplate.query(
+                "SELECT district_code, service FROM bill_run_partitions " +
+                "WHERE run_id = ? AND status IN ('PENDING', 'RUNNING') ORDER BY district_code, service",
+                (rs, rowNum) -> new ServiceArea(
+                        rs.getShort("district_code"),
+                        ServiceType.valueOf(rs.getString("service"))),
+                runId);
+    }
+
+    /**
+     * Billable users that cannot be placed in any partition (no service, or a district outside the
+     * location dictionary).
+     */
+    public long countUnbillableUsers() {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE " + BILLABLE_USER +
+                " AND (district_code IS NULL OR service IS NULL)", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Partitions of running runs that are waiting, or whose worker stopped checkpointing before
+     * {@code staleBefore}.
+     */
+    public List<Long> findClaimablePartitionIds(LocalDateTime staleBefore) {
+        return jdbcTemplate.queryForList(
+                "SELECT p.id FROM bill_run_partitions p JOIN bill_runs r ON r.id = p.run_id " +
+                "WHERE r.status = 'RUNNING' " +
+                "AND (p.status = 'PENDING' OR (p.status = 'RUNNING' AND p.updated_at < ?)) " +
+                "ORDER BY p.id",
+                Long.class, Timestamp.valueOf(staleBefore));
+    }
+
+    /**
+     * Marks the partition as running for the caller and returns it, or empty when it is finished or being
+     * worked on elsewhere.
+     */
+    public Optional<RunPartition> claimPartition(long partitionId, LocalDateTime now, LocalDateTime staleBefore) {
+        return jdbcTemplate.query(
+                "UPDATE bill_run_partitions p SET status = 'RUNNING', updated_at = ? " +
+                "FROM bill_runs r " +
+                "WHERE p.id = ? AND r.id = p.run_id AND r.status = 'RUNNING' " +
+                "AND (p.status = 'PENDING' OR (p.status = 'RUNNING' AND p.updated_at < ?)) " +
+                "RETURNING p.id, p.run_id, r.period, p.district_code, p.service, p.last_user_id",
+                (rs, rowNum) -> new RunPartition(
+                        rs.getLong("id"),
+                        rs.getLong("run_id"),
+                        rs.getDate("period").toLocalDate(),
+                        rs.getShort("district_code"),
+                        ServiceType.valueOf(rs.getString("service")),
+                        rs.getLong("last_user_id")),
+                Timestamp.valueOf(now), partitionId, Timestamp.valueOf(staleBefore))
+                .stream().findFirst();
+    }
+
+    /**
+     * Next chunk of billable users of the partition's district and service, in id order after
+     * {@code afterUserId}. Metered consumption is left at 0; WATER runs add it under the customers' lock.
+     */
+    public List<BillableUser> findBillableUsers(short districtCode, ServiceType service, long afterUserId,
+                                                int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, sector_code FROM users " +
+                "WHERE " + BILLABLE_USER + " AND district_code = ? AND service = ? AND id > ? " +
+                "ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new BillableUser(rs.getLong("id"), service, districtCode,
+                        (Integer) rs.getObject("sector_code"), 0L),
+                districtCode, service.name(), afterUserId, limit);
+    }
+
+    /**
+     * Records progress; runs in the same transaction as the chunk's inserts, so the checkpoint never gets
+     * ahead of the bills actually written. Returns false when the checkpoint is no longer at
+     * {@code expectedLastUserId}, i.e. another worker took the partition over; the caller must then roll
+     * back and stop.
+     */
+    public boolean checkpoint(long partitionId, long expectedLastUserId, long lastUserId, int billsCreated,
+                              LocalDateTime now) {
+        return jdbcTemplate.update(
+                "UPDATE bill_run_partitions SET last_user_id = ?, bills_created = bills_created + ?, " +
+                "updated_at = ? " +
+                "WHERE id = ? AND status = 'RUNNING' AND last_user_id = ?",
+                lastUserId, billsCreated, Timestamp.valueOf(now), partitionId, expectedLastUserId) == 1;
+    }
+
+    public void finishPartition(long partitionId, String error, LocalDateTime now) {
+        jdbcTemplate.update(
+                "UPDATE bill_run_partitions SET status = ?, error = ?, updated_at = ? WHERE id = ?",
+                error == null ? "DONE" : "FAILED", error, Timestamp.valueOf(now), partitionId);
+    }
+
+    /**
+     * Closes the run once none of its partitions is waiting or running: FAILED if any partition failed,
+     * COMPLETED otherwise. Does nothing while work remains.
+     */
+    public void finishRunIfDone(long runId, LocalDateTime now) {
+        jdbcTemplate.update(
+                "UPDATE bill_runs SET finished_at = ?, status = CASE WHEN EXISTS (" +
+                "  SELECT 1 FROM bill_run_partitions WHERE run_id = ? AND status = 'FAILED') " +
+                "  THEN 'FAILED' ELSE 'COMPLETED' END " +
+                "WHERE id = ? AND status = 'RUNNING' AND NOT EXISTS (" +
+                "  SELECT 1 FROM bill_run_partitions WHERE run_id = ? AND status IN ('PENDING', 'RUNNING'))",
+                Timestamp.valueOf(now), runId, runId, runId);
+    }
+
+    public Optional<RunSummary> findRun(long runId) {
+        return jdbcTemplate.query(
+                "SELECT r.id, r.period, r.status, r.started_by, r.started_at, r.finished_at, " +
+                "count(p.id) AS partitions, " +
+                "count(p.id) FILTER (WHERE p.status = 'DONE') AS partitions_done, " +
+                "count(p.id) FILTER (WHERE p.status = 'FAILED') AS partitions_failed, " +
+                "coalesce(sum(p.bills_created), 0) AS bills_created " +
+                "FROM bill_runs r LEFT JOIN bill_run_partitions p ON p.run_id = r.id " +
+                "WHERE r.id = ? GROUP BY r.id",
+                (rs, rowNum) -> new RunSummary(
+                        rs.getLong("id"),
+                        rs.getDate("period").toLocalDate(),
+                        BillRunStatus.valueOf(rs.getString("status")),
+                        rs.getString("started_by"),
+                        rs.getTimestamp("started_at").toLocalDateTime(),
+                        rs.getTimestamp("finished_at") != null
+                                ? rs.getTimestamp("finished_at").toLocalDateTime() : null,
+                        rs.getInt("partitions"),
+                        rs.getInt("partitions_done"),
+                        rs.getInt("partitions_failed"),
+                        rs.getLong("bills_created")),
+                runId)
+                .stream().findFirst();
+    }
+
+    public record RunPartition(long id, long runId, LocalDate period, short districtCode, ServiceType service,
+                               long lastUserId) {
+    }
+
+    public record ServiceArea(short districtCode, ServiceType service) {
+    }
+
+    public record BillableUser(long userId, ServiceType service, short districtCode, Integer sectorCode,
+                               long consumptionLiters) {
+
+        public BillableUser withConsumptionLiters(long liters) {
+            return new BillableUser(userId, service, districtCode, sectorCode, liters);
+        }
+    }
+
+    public record RunSummary(long id, LocalDate period, BillRunStatus status, String startedBy,
+                             LocalDateTime startedAt, LocalDateTime finishedAt, int partitions,
+                             int partitionsDone, int partitionsFailed, long billsCreated) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.entity.MeterReadingAnomaly;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched reads and writes on the meter_readings table for reading ingestion. Postgres-specific; every
+ * lookup covers a whole chunk of users in one statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MeterReadingRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the users rows of {@code userIds} until the end of the transaction. Ingestion and bill runs take
+     * this lock before reading or changing a customer's readings; ids are locked in order, so two chunks
+     * sharing customers cannot deadlock.
+     */
+    public void lockCustomers(List<Long> userIds) {
+        jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ANY(?) ORDER BY id FOR NO KEY UPDATE",
+                Long.class, (Object) userIds.toArray(Long[]::new));
+    }
+
+    /**
+     * The account and reading history of each of {@code userIds} that exists: its latest reading, and the
+     * totals over its last {@code window} readings with a usable consumption and no anomaly.
+     */
+    public Map<Long, MeterHistory> findHistories(Collection<Long> userIds, int window) {
+        Map<Long, MeterHistory> histories = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT u.id, u.role, u.service, u.district_code, last.read_on, last.reading_liters, " +
+                "recent.liters, recent.days, recent.readings " +
+                "FROM users u " +
+                "LEFT JOIN LATERAL (" +
+                "  SELECT read_on, reading_liters FROM meter_readings m " +
+                "  WHERE m.user_id = u.id ORDER BY read_on DESC LIMIT 1) last ON true " +
+                "LEFT JOIN LATERAL (" +
+                "  SELECT coalesce(sum(consumption_liters), 0) AS liters, coalesce(sum(interval_days), 0) AS days, " +
+                "  count(*) AS readings FROM (" +
+                "    SELECT consumption_liters, interval_days FROM meter_readings m " +
+                "    WHERE m.user_id = u.id AND m.consumption_liters IS NOT NULL AND m.anomaly IS NULL " +
+                "    ORDER BY read_on DESC LIMIT ?) r) recent ON true " +
+                "WHERE u.id = ANY(?)",
+                rs -> {
+                    String service = rs.getString("service");
+                    Date lastReadOn = rs.getDate("read_on");
+                    histories.put(rs.getLong("id"), new MeterHistory(
+                            UserRole.valueOf(rs.getString("role")),
+                            service != null ? ServiceType.valueOf(service) : null,
+                            rs.getObject("district_code", Short.class),
+                            lastReadOn != null ? lastReadOn.toLocalDate() : null,
+                            rs.getObject("reading_liters", Long.class),
+                            rs.getLong("liters"),
+                            rs.getLong("days"),
+                            rs.getInt("readings")));
+                },
+                window, userIds.toArray(Long[]::new));
+        return histories;
+    }
+
+    /**
+     * Inserts all readings as one JDBC batch. Callers hold the customers' lock and have checked each reading
+     * is newer than the stored ones, so the conflict clause only guards against writes outside ingestion.
+     */
+    public void insertReadings(List<NewReading> readings) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO meter_readings (user_id, read_on, reading_liters, consumption_liters, interval_days, " +
+                "anomaly, import_id, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (user_id, read_on) DO NOTHING",
+                readings, readings.size(), (ps, reading) -> {
+                    ps.setLong(1, reading.userId());
+                    ps.setDate(2, Date.valueOf(reading.readOn()));
+                    ps.setLong(3, reading.readingLiters());
+                    if (reading.consumptionLiters() != null) {
+                        ps.setLong(4, reading.consumptionLiters());
+                    } else {
+                        ps.setNull(4, Types.BIGINT);
+                    }
+                    if (reading.intervalDays() != null) {
+                        ps.setInt(5, reading.intervalDays());
+                    } else {
+                        ps.setNull(5, Types.INTEGER);
+                    }
+                    ps.setString(6, reading.anomaly() != null ? reading.anomaly().name() : null);
+                    ps.setString(7, reading.importId());
+                    ps.setTimestamp(8, Timestamp.valueOf(reading.createdAt()));
+                });
+    }
+
+    /**
+     * Usage per user of the readings taken before {@code before} that no bill has charged yet. Users
+     * without any are absent. Callers hold the customers' lock.
+     */
+    public Map<Long, Long> findUnbilledConsumption(List<Long> userIds, LocalDate before) {
+        Map<Long, Long> consumption = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT user_id, sum(consumption_liters) AS liters FROM meter_readings " +
+                "WHERE user_id = ANY(?) AND bill_id IS NULL AND consumption_liters IS NOT NULL AND read_on < ? " +
+                "GROUP BY user_id",
+                rs -> {
+                    consumption.put(rs.getLong("user_id"), rs.getLong("liters"));
+                },
+                userIds.toArray(Long[]::new), Date.valueOf(before));
+        return consumption;
+    }
+
+    /**
+     * Links the readings counted by {@link #findUnbilledConsumption} to the WATER bills that run
+     * {@code billRunId} wrote for {@code period}. Readings of users whose bill for the period came from an
+     * earlier run stay unbilled and go on the next bill.
+     */
+    public void markBilled(long billRunId, LocalDate period, List<Long> userIds, LocalDate before) {
+        jdbcTemplate.update(
+                "UPDATE meter_readings m SET bill_id = b.id FROM bills b " +
+                "WHERE b.user_id = m.user_id AND b.bill_run_id = ? AND b.service = ? AND b.period = ? " +
+                "AND m.user_id = ANY(?) AND m.bill_id IS NULL AND m.consumption_liters IS NOT NULL " +
+                "AND m.read_on < ?",
+                billRunId, ServiceType.WATER.name(), Date.valueOf(period), userIds.toArray(Long[]::new),
+                Date.valueOf(before));
+    }
+
+    public record MeterHistory(UserRole role, ServiceType service, Short districtCode, LocalDate lastReadOn,
+                               Long lastReadingLiters, long recentLiters, long recentDays, int recentReadings) {
+    }
+
+    public record NewReading(long userId, LocalDate readOn, long readingLiters, Long consumptionLiters,
+                             Integer intervalDays, MeterReadingAnomaly anomaly, String importId,
+                             LocalDateTime createdAt) {
+    }
+
+}
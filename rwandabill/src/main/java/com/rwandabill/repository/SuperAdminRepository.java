@@ -1,13 +1,27 @@
 package com.rwandabill.repository;
 
 import com.rwandabill.entity.SuperAdminEntity;
+import com.rwandabill.security.EmailCanonicalizer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface SuperAdminRepository extends JpaRepository<SuperAdminEntity, Long> {
-    Optional<SuperAdminEntity> findByEmail(String email);
-    boolean existsByEmail(String email);
+    default Optional<SuperAdminEntity> findByEmail(String email) {
+        return findByCanonicalEmail(EmailCanonicalizer.canonicalize(email));
+    }
+
+    default boolean existsByEmail(String email) {
+        return existsByCanonicalEmail(EmailCanonicalizer.canonicalize(email));
+    }
+
+    @Query("SELECT s FROM SuperAdminEntity s WHERE lower(s.email) = :email")
+    Optional<SuperAdminEntity> findByCanonicalEmail(@Param("email") String email);
+
+    @Query("SELECT count(s) > 0 FROM SuperAdminEntity s WHERE lower(s.email) = :email")
+    boolean existsByCanonicalEmail(@Param("email") String email);
 }
@@ -0,0 +1,258 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.User;
+import com.rwandabill.entity.UserRole;
+import com.rwandabill.location.LocationFilter;
+import com.rwandabill.security.AccountScope;
+import com.rwandabill.security.EmailCanonicalizer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Set-based statements on the users table that have no efficient Spring Data equivalent
+ * (multi-row updates with RETURNING). Postgres-specific; ids are bound as a single bigint array.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Rows leased to another approver are left alone until the lease runs out
+    private static final String CLAIM_AVAILABLE =
+            "(claimed_by IS NULL OR claimed_by = ? OR claim_expires_at < ?)";
+
+    /**
+     * Approves the pending USER accounts among {@code ids} that fall within {@code scope} and returns the
+     * ids actually updated.
+     */
+    public List<Long> approvePending(Collection<Long> ids, AccountScope scope, Long approverId,
+                                     String approverEmail, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        StringBuilder sql = new StringBuilder(
+                "UPDATE users SET approved = true, approved_at = ?, approved_by = ?, is_active = true, " +
+                "rejection_reason = NULL, claimed_by = NULL, claim_expires_at = NULL, " +
+                "version = version + 1, updated_at = ? " +
+                "WHERE id = ANY(?) AND role = 'USER' AND approved = false AND " + CLAIM_AVAILABLE);
+        List<Object> args = new ArrayList<>(Arrays.asList(timestamp, approverId, timestamp,
+                ids.toArray(Long[]::new), approverEmail, timestamp));
+        appendScope(sql, args, scope);
+        sql.append(" RETURNING id");
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    /**
+     * Rejects the USER accounts among {@code ids} that fall within {@code scope} and returns the ids
+     * actually updated.
+     */
+    public List<Long> reject(Collection<Long> ids, AccountScope scope, String rejectionReason,
+                             String approverEmail, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        StringBuilder sql = new StringBuilder(
+                "UPDATE users SET approved = false, approved_at = NULL, approved_by = NULL, is_active = false, " +
+                "rejection_reason = ?, claimed_by = NULL, claim_expires_at = NULL, " +
+                "version = version + 1, updated_at = ? " +
+                "WHERE id = ANY(?) AND role = 'USER' AND " + CLAIM_AVAILABLE);
+        List<Object> args = new ArrayList<>(Arrays.asList(rejectionReason, timestamp, ids.toArray(Long[]::new),
+                approverEmail, timestamp));
+        appendScope(sql, args, scope);
+        sql.append(" RETURNING id");
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    /**
+     * Leases up to {@code limit} of the oldest unclaimed pending USER accounts in {@code scope} to
+     * {@code approverEmail} until {@code expiresAt}. Rows locked by a concurrent claim are skipped rather than waited on,
+     * so approvers claiming at the same time always receive disjoint batches.
+     */
+    public List<Long> claimPending(String approverEmail, AccountScope scope, int limit, LocalDateTime now,
+                                   LocalDateTime expiresAt) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE users SET claimed_by = ?, claim_expires_at = ?, version = version + 1 " +
+                "WHERE id IN (" +
+                "  SELECT id FROM users " +
+                "  WHERE role = 'USER' AND approved = false AND rejection_reason IS NULL " +
+                "    AND (claimed_by IS NULL OR claim_expires_at < ?)");
+        List<Object> args = new ArrayList<>(Arrays.asList(approverEmail, Timestamp.valueOf(expiresAt),
+                Timestamp.valueOf(now)));
+        appendScope(sql, args, scope);
+        sql.append(" ORDER BY created_at, id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id");
+        args.add(limit);
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    /**
+     * Gives back every lease held by {@code approverEmail} and returns the released ids.
+     */
+    public List<Long> releaseClaims(String approverEmail) {
+        return jdbcTemplate.queryForList(
+                "UPDATE users SET claimed_by = NULL, claim_expires_at = NULL, version = version + 1 " +
+                "WHERE claimed_by = ? AND approved = false " +
+                "RETURNING id",
+                Long.class, approverEmail);
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE id = ANY(?)", Long.class, (Object) ids.toArray(Long[]::new)));
+    }
+
+    /**
+     * Next chunk of pending USER ids matching the optional filters, in id order after {@code afterId}.
+     */
+    public List<Long> findPendingIds(AccountScope scope, LocationFilter location, LocalDateTime createdBefore,
+                                     long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id FROM users WHERE role = 'USER' AND approved = false AND id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        appendScope(sql, args, scope);
+        appendLocation(sql, args, location);
+        if (createdBefore != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(createdBefore));
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    /**
+     * Restricts a WHERE clause on the users table to the accounts in {@code scope}.
+     */
+    static void appendScope(StringBuilder sql, List<Object> args, AccountScope scope) {
+        if (!scope.isNational()) {
+            sql.append(" AND service = ? AND district_code = ?");
+            args.add(scope.service().name());
+            args.add(scope.districtCode());
+        }
+    }
+
+    /**
+     * Appends the criteria of {@code location} to a WHERE clause on the users table.
+     */
+    static void appendLocation(StringBuilder sql, List<Object> args, LocationFilter location) {
+        if (location.districtCode() != null) {
+            sql.append(" AND district_code = ?");
+            args.add(location.districtCode());
+        }
+        if (location.sectorCode() != null) {
+            sql.append(" AND sector_code = ?");
+            args.add(location.sectorCode());
+        } else if (location.sector() != null) {
+            sql.append(" AND lower(sector) = lower(?)");
+            args.add(location.sector());
+        }
+    }
+
+    /**
+     * Inserts {@code user} in one statement unless its email is already registered, and fills in the
+     * generated id and timestamps like {@code save} would. Returns false when the unique constraint on
+     * email turned the insert into a no-op, which also covers two concurrent signups racing each other.
+     * New rows start inactive and unapproved, as enforced by {@code User#onCreate} for JPA inserts.
+     */
+    public boolean insertIfAbsent(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Optional<Long> id = jdbcTemplate.queryForList(
+                "INSERT INTO users (email, password, full_name, telephone, district, sector, district_code, " +
+                "sector_code, role, service, is_active, approved, email_verified, created_at, updated_at, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, false, ?, ?, ?, 0) " +
+                "ON CONFLICT (lower(email)) DO NOTHING " +
+                "RETURNING id",
+                Long.class,
+                EmailCanonicalizer.canonicalize(user.getEmail()), user.getPassword(), user.getFullName(), user.getTelephone(),
+                user.getDistrict(), user.getSector(), user.getDistrictCode(), user.getSectorCode(),
+                user.getRole() != null ? user.getRole().name() : UserRole.USER.name(),
+                user.getService() != null ? user.getService().name() : null,
+                Boolean.TRUE.equals(user.getEmailVerified()), timestamp, timestamp)
+                .stream().findFirst();
+        if (id.isEmpty()) {
+            return false;
+        }
+        user.setId(id.get());
+        user.setEmail(EmailCanonicalizer.canonicalize(user.getEmail()));
+        user.setIsActive(false);
+        user.setApproved(false);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        user.setVersion(0L);
+        return true;
+    }
+
+    /**
+     * Draws {@code count} ids from the sequence behind {@code users.id} in one round trip, so rows can be
+     * inserted with known ids in a JDBC batch (an identity column otherwise forces row-by-row inserts).
+     */
+    public List<Long> reserveIds(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('users', 'id')) FROM generate_series(1, ?)",
+                Long.class, count);
+    }
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT lower(email) FROM users WHERE lower(email) = ANY(?)", String.class,
+                (Object) emails.stream().map(EmailCanonicalizer::canonicalize).toArray(String[]::new)));
+    }
+
+    /**
+     * Inserts all rows as one JDBC batch. Rows whose email was registered concurrently are skipped by the
+     * unique constraint instead of failing the batch. Per-row update counts are not reliable once the
+     * driver rewrites the batch into multi-row inserts, so callers check which reserved ids now exist.
+     */
+    public void insertUsers(List<NewUser> users) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (id, email, password, full_name, telephone, district, sector, district_code, " +
+                "sector_code, role, service, is_active, approved, approved_at, approved_by, email_verified, " +
+                "created_at, updated_at, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'USER', ?, ?, ?, ?, ?, false, ?, ?, 0) " +
+                "ON CONFLICT (lower(email)) DO NOTHING",
+                users, users.size(), (ps, user) -> {
+                    Timestamp now = Timestamp.valueOf(user.createdAt());
+                    ps.setLong(1, user.id());
+                    ps.setString(2, EmailCanonicalizer.canonicalize(user.email()));
+                    ps.setString(3, user.passwordHash());
+                    ps.setString(4, user.fullName());
+                    ps.setString(5, user.telephone());
+                    ps.setString(6, user.district());
+                    ps.setString(7, user.sector());
+                    ps.setShort(8, user.districtCode());
+                    if (user.sectorCode() != null) {
+                        ps.setInt(9, user.sectorCode());
+                    } else {
+                        ps.setNull(9, Types.INTEGER);
+                    }
+                    ps.setString(10, user.service() != null ? user.service().name() : null);
+                    ps.setBoolean(11, user.approvedBy() != null);
+                    ps.setBoolean(12, user.approvedBy() != null);
+                    ps.setTimestamp(13, user.approvedBy() != null ? now : null);
+                    if (user.approvedBy() != null) {
+                        ps.setLong(14, user.approvedBy());
+                    } else {
+                        ps.setNull(14, Types.BIGINT);
+                    }
+                    ps.setTimestamp(15, now);
+                    ps.setTimestamp(16, now);
+                });
+    }
+
+    public record NewUser(Long id, String email, String passwordHash, String fullName, String telephone,
+                          String district, String sector, short districtCode, Integer sectorCode,
+                          ServiceType service, Long approvedBy,
+                          LocalDateTime createdAt) {
+    }
+}
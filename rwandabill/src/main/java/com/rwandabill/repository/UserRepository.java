@@ -1,26 +1,156 @@
 package com.rwandabill.repository;
 
+import com.rwandabill.dto.UserSummary;
+import com.rwandabill.entity.ServiceType;
 import com.rwandabill.entity.User;
 import com.rwandabill.entity.UserRole;
+import com.rwandabill.security.EmailCanonicalizer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
+    // Columns needed by UserResponse, with the approver email joined in; yields DTOs, not entities
+    String USER_SUMMARY_SELECT = "SELECT new com.rwandabill.dto.UserSummary(" +
+            "u.id, u.email, u.fullName, u.telephone, u.district, u.sector, u.districtCode, u.role, u.service, " +
+            "u.isActive, u.approved, u.createdAt, u.approvedAt, a.email, u.rejectionReason, u.emailVerified, " +
+            "u.claimedBy, u.claimExpiresAt, u.version) " +
+            "FROM User u LEFT JOIN u.approvedBy a ";
+
+    // Email lookups canonicalize their argument and probe the lower(email) unique index
+    default Optional<User> findByEmail(String email) {
+        return findByCanonicalEmail(EmailCanonicalizer.canonicalize(email));
+    }
+
+    default boolean existsByEmail(String email) {
+        return existsByCanonicalEmail(EmailCanonicalizer.canonicalize(email));
+    }
+
+    @Query("SELECT u FROM User u WHERE lower(u.email) = :email")
+    Optional<User> findByCanonicalEmail(@Param("email") String email);
+
+    @Query("SELECT count(u) > 0 FROM User u WHERE lower(u.email) = :email")
+    boolean existsByCanonicalEmail(@Param("email") String email);
     List<User> findByRole(UserRole role);
     
-    @Query("SELECT u FROM User u WHERE u.approved = false AND u.role = :role")
-    Page<User> findByApprovedFalseAndRole(@Param("role") UserRole role, Pageable pageable);
+    @Query(value = USER_SUMMARY_SELECT + "WHERE u.approved = false AND u.role = :role",
+           countQuery = "SELECT count(u) FROM User u WHERE u.approved = false AND u.role = :role")
+    Page<UserSummary> findPendingSummaries(@Param("role") UserRole role, Pageable pageable);
+
+    @Query(value = USER_SUMMARY_SELECT + "WHERE u.approved = false AND u.role = :role " +
+                   "AND u.service = :service AND u.districtCode = :districtCode",
+           countQuery = "SELECT count(u) FROM User u WHERE u.approved = false AND u.role = :role " +
+                   "AND u.service = :service AND u.districtCode = :districtCode")
+    Page<UserSummary> findScopedPendingSummaries(@Param("role") UserRole role,
+                                                 @Param("service") ServiceType service,
+                                                 @Param("districtCode") Short districtCode,
+                                                 Pageable pageable);
+
+    @Query(USER_SUMMARY_SELECT + "WHERE u.id = :id")
+    Optional<UserSummary> findSummaryById(@Param("id") Long id);
     
+    @Query(USER_SUMMARY_SELECT + "WHERE u.id IN :ids ORDER BY u.createdAt, u.id")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT u FROM User u WHERE u.role = :role")
     Page<User> findByRole(@Param("role") UserRole role, Pageable pageable);
+
+    // Forward-only cursor for exports: rows arrive in fetch-size batches and are not kept by Hibernate
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u WHERE u.role IN :roles ORDER BY u.id")
+    Stream<User> streamByRoleIn(@Param("roles") Collection<UserRole> roles);
+
+    List<User> findByRoleAndServiceAndDistrictCode(UserRole role, ServiceType service, Short districtCode);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u WHERE u.role = :role AND u.service = :service " +
+           "AND u.districtCode = :districtCode ORDER BY u.id")
+    Stream<User> streamScopedByRole(@Param("role") UserRole role,
+                                    @Param("service") ServiceType service,
+                                    @Param("districtCode") Short districtCode);
+
+    long countByApprovedFalseAndRole(UserRole role);
+
+    long countByApprovedFalseAndRoleAndServiceAndDistrictCode(UserRole role, ServiceType service,
+                                                              Short districtCode);
+
+    long countByRole(UserRole role);
+
+    long countByRoleAndServiceAndDistrictCode(UserRole role, ServiceType service, Short districtCode);
+
+    // Keyset pages ordered by (createdAt, id): every page is an index range scan, whatever its depth
+    @Query(USER_SUMMARY_SELECT + "WHERE u.approved = false AND u.role = :role ORDER BY u.createdAt, u.id")
+    List<UserSummary> findPendingPage(@Param("role") UserRole role, Limit limit);
+
+    @Query(USER_SUMMARY_SELECT + "WHERE u.approved = false AND u.role = :role " +
+           "AND (u.createdAt, u.id) > (:createdAt, :id) ORDER BY u.createdAt, u.id")
+    List<UserSummary> findPendingPageAfter(@Param("role") UserRole role,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Limit limit);
+
+    // Scoped variants of the keyset pages above, for admins working on one service in one district
+    @Query(USER_SUMMARY_SELECT + "WHERE u.approved = false AND u.role = :role " +
+           "AND u.service = :service AND u.districtCode = :districtCode ORDER BY u.createdAt, u.id")
+    List<UserSummary> findScopedPendingPage(@Param("role") UserRole role,
+                                            @Param("service") ServiceType service,
+                                            @Param("districtCode") Short districtCode,
+                                            Limit limit);
+
+    @Query(USER_SUMMARY_SELECT + "WHERE u.approved = false AND u.role = :role " +
+           "AND u.service = :service AND u.districtCode = :districtCode " +
+           "AND (u.createdAt, u.id) > (:createdAt, :id) ORDER BY u.createdAt, u.id")
+    List<UserSummary> findScopedPendingPageAfter(@Param("role") UserRole role,
+                                                 @Param("service") ServiceType service,
+                                                 @Param("districtCode") Short districtCode,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Limit limit);
+
+    @Query(USER_SUMMARY_SELECT + "WHERE u.role = :role ORDER BY u.createdAt, u.id")
+    List<UserSummary> findRolePage(@Param("role") UserRole role, Limit limit);
+
+    @Query(USER_SUMMARY_SELECT + "WHERE u.role = :role " +
+           "AND (u.createdAt, u.id) > (:createdAt, :id) ORDER BY u.createdAt, u.id")
+    List<UserSummary> findRolePageAfter(@Param("role") UserRole role,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Limit limit);
+
+    @Query(USER_SUMMARY_SELECT + "WHERE u.role = :role " +
+           "AND u.service = :service AND u.districtCode = :districtCode ORDER BY u.createdAt, u.id")
+    List<UserSummary> findScopedRolePage(@Param("role") UserRole role,
+                                         @Param("service") ServiceType service,
+                                         @Param("districtCode") Short districtCode,
+                                         Limit limit);
+
+    @Query(USER_SUMMARY_SELECT + "WHERE u.role = :role " +
+           "AND u.service = :service AND u.districtCode = :districtCode " +
+           "AND (u.createdAt, u.id) > (:createdAt, :id) ORDER BY u.createdAt, u.id")
+    List<UserSummary> findScopedRolePageAfter(@Param("role") UserRole role,
+                                              @Param("service") ServiceType service,
+                                              @Param("districtCode") Short districtCode,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Limit limit);
 }
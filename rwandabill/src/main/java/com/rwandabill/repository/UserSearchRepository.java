@@ -0,0 +1,128 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.dto.UserSearchResult;
+import com.rwandabill.entity.ApprovalState;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+import com.rwandabill.location.LocationFilter;
+import com.rwandabill.security.AccountScope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Ranked substring and fuzzy search over users, served by the pg_trgm GIN index on {@link #SEARCH_TEXT} and,
+ * for phone number prefixes, the telephone prefix index.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserSearchRepository {
+
+    // Must stay identical to the idx_users_search_trgm expression (V9 migration)
+    static final String SEARCH_TEXT = "(lower(full_name) || ' ' || telephone || ' ' || lower(email))";
+
+    static final int MAX_CANDIDATES = 1000;
+
+    // Digits with an optional leading +, as typed when looking up a phone number
+    private static final Pattern PHONE_PREFIX = Pattern.compile("\\+?[0-9]{3,}");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Users whose name, phone or email contains {@code term}, or resembles it closely enough
+     * ({@code <%} word similarity above the transaction's threshold). Exact substring hits rank first,
+     * then by similarity. A term that looks like a phone number prefix is looked up on the telephone prefix
+     * index instead. Returns at most {@code limit} rows starting at {@code offset}.
+     * <p>
+     * A GIN index cannot return rows in ranked order, so only the first {@link #MAX_CANDIDATES} matches are
+     * ranked; short terms that match most rows stay as fast as selective ones.
+     */
+    public List<UserSearchResult> search(String term, AccountScope scope, LocationFilter location,
+                                         ServiceType service, ApprovalState approvalState, int offset, int limit) {
+        String normalized = term.trim().toLowerCase(Locale.ROOT);
+        boolean phonePrefix = PHONE_PREFIX.matcher(normalized).matches();
+        String contains = "%" + escapeLike(normalized) + "%";
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, email, full_name, telephone, district, sector, role, service, approved, " +
+                "rejection_reason, word_similarity(?, search_text) AS score, (search_text LIKE ?) AS exact " +
+                "FROM (SELECT id, email, full_name, telephone, district, sector, role, service, approved, " +
+                "rejection_reason, " + SEARCH_TEXT + " AS search_text FROM users WHERE ");
+        List<Object> args = new ArrayList<>(List.of(normalized, contains));
+        if (phonePrefix) {
+            List<String> prefixes = phonePrefixes(normalized);
+            sql.append("(").append(String.join(" OR ", Collections.nCopies(prefixes.size(), "telephone LIKE ?")))
+                    .append(")");
+            prefixes.forEach(prefix -> args.add(escapeLike(prefix) + "%"));
+        } else {
+            sql.append("(" + SEARCH_TEXT + " LIKE ? OR ? <% " + SEARCH_TEXT + ")");
+            args.add(contains);
+            args.add(normalized);
+        }
+        UserJdbcRepository.appendScope(sql, args, scope);
+        UserJdbcRepository.appendLocation(sql, args, location);
+        if (service != null) {
+            sql.append(" AND service = ?");
+            args.add(service.name());
+        }
+        if (approvalState != null) {
+            sql.append(switch (approvalState) {
+                case APPROVED -> " AND approved = true";
+                case REJECTED -> " AND approved = false AND rejection_reason IS NOT NULL";
+                case PENDING -> " AND approved = false AND rejection_reason IS NULL";
+            });
+        }
+        sql.append(phonePrefix ? " ORDER BY telephone, id" : "");
+        sql.append(" LIMIT ?) candidates ORDER BY exact DESC, score DESC, id LIMIT ? OFFSET ?");
+        args.add(MAX_CANDIDATES);
+        args.add(limit);
+        args.add(offset);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            String serviceName = rs.getString("service");
+            ApprovalState state = rs.getBoolean("approved") ? ApprovalState.APPROVED
+                    : rs.getString("rejection_reason") != null ? ApprovalState.REJECTED
+                    : ApprovalState.PENDING;
+            return new UserSearchResult(
+                    rs.getLong("id"),
+                    rs.getString("email"),
+                    rs.getString("full_name"),
+                    rs.getString("telephone"),
+                    rs.getString("district"),
+                    rs.getString("sector"),
+                    UserRole.valueOf(rs.getString("role")),
+                    serviceName != null ? ServiceType.valueOf(serviceName) : null,
+                    state,
+                    rs.getDouble("score"));
+        }, args.toArray());
+    }
+
+    /**
+     * Sets the word-similarity cut-off used by {@code <%} for the rest of the current transaction.
+     */
+    public void setSimilarityThreshold(double threshold) {
+        jdbcTemplate.queryForObject("SELECT set_config('pg_trgm.word_similarity_threshold', ?, true)",
+                String.class, String.valueOf(threshold));
+    }
+
+    // Numbers are stored as typed, so "078..." also looks for "+25078..." and the other way round
+    private static List<String> phonePrefixes(String term) {
+        if (term.startsWith("0")) {
+            return List.of(term, "+250" + term.substring(1));
+        }
+        if (term.startsWith("+250")) {
+            return List.of(term, "0" + term.substring(4));
+        }
+        return List.of(term);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,84 @@
+package com.rwandabill.repository;
+
+import com.rwandabill.dto.UserStatsBucket;
+import com.rwandabill.entity.ApprovalState;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The user_stats counter table. Rows are maintained by database triggers on the account tables (see the
+ * V7 migration); this repository only reads them and repairs drift.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserStatsRepository {
+
+    // Arbitrary key so only one node reconciles at a time
+    private static final long RECONCILE_LOCK_KEY = 0x5573657253746174L;
+
+    private static final String ACTUAL_COUNTS =
+            "SELECT account ->> 'district' AS district, account ->> 'sector' AS sector, " +
+            "COALESCE(account ->> 'service', '') AS service, account ->> 'role' AS role, " +
+            "user_stats_approval_state(account) AS approval_state, count(*) AS user_count " +
+            "FROM (SELECT to_jsonb(u) AS account FROM users u " +
+            "      UNION ALL SELECT to_jsonb(a) FROM admins a " +
+            "      UNION ALL SELECT to_jsonb(s) FROM superadmins s) accounts " +
+            "GROUP BY 1, 2, 3, 4, 5";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<UserStatsBucket> findBuckets(String district) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT district, sector, NULLIF(service, '') AS service, role, approval_state, user_count " +
+                "FROM user_stats WHERE user_count <> 0");
+        List<Object> args = new ArrayList<>();
+        if (district != null) {
+            sql.append(" AND district = ?");
+            args.add(district);
+        }
+        sql.append(" ORDER BY district, sector, service, role, approval_state");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            String service = rs.getString("service");
+            return new UserStatsBucket(
+                    rs.getString("district"),
+                    rs.getString("sector"),
+                    service != null ? ServiceType.valueOf(service) : null,
+                    UserRole.valueOf(rs.getString("role")),
+                    ApprovalState.valueOf(rs.getString("approval_state")),
+                    rs.getLong("user_count"));
+        }, args.toArray());
+    }
+
+    /**
+     * Recounts the account tables and overwrites every bucket that drifted. Must run inside a transaction.
+     * The table lock makes concurrent writers wait for the recount, so no delta can be lost between the
+     * recount and the overwrite. Returns the number of corrected buckets, or -1 when another node holds
+     * the reconciliation lock.
+     */
+    public int reconcile() {
+        Boolean acquired = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RECONCILE_LOCK_KEY);
+        if (!Boolean.TRUE.equals(acquired)) {
+            return -1;
+        }
+        jdbcTemplate.execute("LOCK TABLE user_stats IN SHARE ROW EXCLUSIVE MODE");
+        List<Integer> corrected = jdbcTemplate.queryForList(
+                "WITH actual AS (" + ACTUAL_COUNTS + ") " +
+                "INSERT INTO user_stats (district, sector, service, role, approval_state, user_count) " +
+                "SELECT district, sector, service, role, approval_state, COALESCE(a.user_count, 0) " +
+                "FROM actual a FULL JOIN user_stats s USING (district, sector, service, role, approval_state) " +
+                "WHERE COALESCE(a.user_count, 0) IS DISTINCT FROM s.user_count " +
+                "ON CONFLICT (district, sector, service, role, approval_state) " +
+                "DO UPDATE SET user_count = EXCLUDED.user_count " +
+                "RETURNING 1",
+                Integer.class);
+        jdbcTemplate.update("DELETE FROM user_stats WHERE user_count = 0");
+        return corrected.size();
+    }
+}
@@ -0,0 +1,28 @@
+package com.rwandabill.security;
+
+import com.rwandabill.entity.ServiceType;
+
+/**
+ * The slice of accounts an approver works on. Super admins are national; an admin only sees accounts of
+ * their own service in their own district. Scoped queries always bind both values, so each shape is served
+ * by its own composite index.
+ */
+public record AccountScope(ServiceType service, Short districtCode) {
+
+    public static final AccountScope NATIONAL = new AccountScope(null, null);
+
+    public boolean isNational() {
+        return service == null && districtCode == null;
+    }
+
+    public boolean includes(ServiceType accountService, Short accountDistrictCode) {
+        return isNational() || (service == accountService && districtCode.equals(accountDistrictCode));
+    }
+
+    /**
+     * Distinguishes per-scope entries in caches such as the listing counts.
+     */
+    public String cacheKey() {
+        return isNational() ? "national" : service.name() + ":" + districtCode;
+    }
+}
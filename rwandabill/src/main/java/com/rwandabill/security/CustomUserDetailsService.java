@@ -1,7 +1,7 @@
 package com.rwandabill.security;
 
-import com.rwandabill.entity.User;
-import com.rwandabill.repository.UserRepository;
+import com.rwandabill.cache.CachedUser;
+import com.rwandabill.cache.UserAccountCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,11 +15,11 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserAccountCache userAccountCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        CachedUser user = userAccountCache.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
         return new org.springframework.security.core.userdetails.User(
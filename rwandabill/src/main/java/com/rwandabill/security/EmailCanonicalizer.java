@@ -0,0 +1,19 @@
+package com.rwandabill.security;
+
+import java.util.Locale;
+
+/**
+ * The one place that decides how an email is stored and looked up: trimmed and lower-cased. Every
+ * repository applies it to writes and lookups, and the lower(email) unique indexes from the migrations
+ * guarantee the database agrees. Addresses are expected to be ASCII, where Java and Postgres lower-casing
+ * are identical.
+ */
+public final class EmailCanonicalizer {
+
+    private EmailCanonicalizer() {
+    }
+
+    public static String canonicalize(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
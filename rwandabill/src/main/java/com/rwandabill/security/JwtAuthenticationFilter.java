@@ -13,13 +13,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -27,18 +28,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = extractJwtFromRequest(request);
 
-            if (jwt != null && jwtUtil.validateToken(jwt)) {
-                String email = jwtUtil.extractEmail(jwt);
-                Long userId = jwtUtil.extractUserId(jwt);
+            Optional<VerifiedToken> verified = verifiedTokenCache.verify(jwt);
 
-                // Create authentication token
+            if (verified.isPresent()) {
+                VerifiedToken token = verified.get();
+
+                // Authorities come straight from the role claim, no account lookup needed
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(email, null, null);
+                        new UsernamePasswordAuthenticationToken(token, null, token.authorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 // Set authentication in security context
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("JWT validated for user: {}", email);
+                log.debug("JWT validated for user: {}", token.subject());
             }
         } catch (Exception e) {
             log.error("JWT authentication error: {}", e.getMessage());
@@ -1,66 +1,97 @@
 package com.rwandabill.security;
 
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 @Slf4j
 public class JwtUtil {
 
+    private static final String USER_ID_CLAIM = "userId";
+    private static final String ROLE_CLAIM = "role";
+    private static final String SERVICE_CLAIM = "service";
+    private static final String DISTRICT_CLAIM = "district";
+    private static final String SECTOR_CLAIM = "sector";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // Both are immutable and thread-safe, so they are built once instead of per call
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public String generateToken(String email, Long userId) {
+    public String generateToken(String email, Long userId, UserRole role,
+                                ServiceType service, String district, String sector) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .subject(email)
-                .claim("userId", userId)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLE_CLAIM, role != null ? role.name() : null)
+                .claim(SERVICE_CLAIM, service != null ? service.name() : null)
+                .claim(DISTRICT_CLAIM, district)
+                .claim(SECTOR_CLAIM, sector)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + jwtExpiration))
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return extractClaims(token).getSubject();
-    }
-
-    public Long extractUserId(String token) {
-        return extractClaims(token).get("userId", Long.class);
-    }
-
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the signature and expiry of the token exactly once and returns its claims.
+     * Returns an empty result for malformed, tampered or expired tokens.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            log.error("JWT validation error: {}", e.getMessage());
-            return false;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            return Optional.of(toVerifiedToken(claims));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWT validation error: {}", e.getMessage());
+            return Optional.empty();
         }
     }
 
-    private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token has no expiration");
+        }
+        String role = claims.get(ROLE_CLAIM, String.class);
+        String service = claims.get(SERVICE_CLAIM, String.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                role != null ? UserRole.valueOf(role) : null,
+                service != null ? ServiceType.valueOf(service) : null,
+                claims.get(DISTRICT_CLAIM, String.class),
+                claims.get(SECTOR_CLAIM, String.class),
+                claims.getExpiration().toInstant()
+        );
     }
 }
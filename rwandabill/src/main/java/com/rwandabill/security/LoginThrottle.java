@@ -0,0 +1,170 @@
+package com.rwandabill.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rwandabill.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-memory brute-force guard for login. Attempts are counted per email and per client address in
+ * sliding windows before any database query or BCrypt verification runs, and successful logins give
+ * theirs back, so the counts are failures; once either limit is reached further attempts are rejected.
+ * <p>
+ * Counters live in size-bounded Caffeine maps (concurrent, lock-striped) that drop idle keys after two
+ * windows, so memory stays bounded no matter how many distinct emails or addresses are seen.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private final long windowMillis;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerAddress;
+    private final Cache<String, SlidingWindowCounter> emailFailures;
+    private final Cache<String, SlidingWindowCounter> addressFailures;
+    private final Counter emailRejections;
+    private final Counter addressRejections;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${login-throttle.window:PT15M}") Duration window,
+                         @Value("${login-throttle.max-failures-per-email:5}") int maxFailuresPerEmail,
+                         @Value("${login-throttle.max-failures-per-address:50}") int maxFailuresPerAddress,
+                         @Value("${login-throttle.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.windowMillis = window.toMillis();
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerAddress = maxFailuresPerAddress;
+        this.emailFailures = newCounterCache(window, maxTrackedKeys);
+        this.addressFailures = newCounterCache(window, maxTrackedKeys);
+        this.emailRejections = Counter.builder("login.throttle.rejected")
+                .tag("scope", "email")
+                .register(meterRegistry);
+        this.addressRejections = Counter.builder("login.throttle.rejected")
+                .tag("scope", "address")
+                .register(meterRegistry);
+    }
+
+    private static Cache<String, SlidingWindowCounter> newCounterCache(Duration window, long maxTrackedKeys) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+    }
+
+    /**
+     * Counts a login attempt against the email and the address, or rejects it with
+     * {@link LoginThrottledException} if either is at its limit. Checking and counting is one atomic step per
+     * key, so concurrent attempts cannot all pass before any of them is counted.
+     */
+    public void acquireAttempt(String email, String address) {
+        long now = System.currentTimeMillis();
+        String emailKey = EmailCanonicalizer.canonicalize(email);
+        if (!tryAcquire(emailFailures, emailKey, maxFailuresPerEmail, now)) {
+            emailRejections.increment();
+            throw throttled();
+        }
+        if (!tryAcquire(addressFailures, address, maxFailuresPerAddress, now)) {
+            release(emailFailures, emailKey, now);
+            addressRejections.increment();
+            log.warn("Login attempts throttled for address {}", address);
+            throw throttled();
+        }
+    }
+
+    /**
+     * Clears the email's count and gives the attempt back to the address, so only failures add up.
+     */
+    public void recordSuccess(String email, String address) {
+        String emailKey = EmailCanonicalizer.canonicalize(email);
+        if (emailKey != null) {
+            emailFailures.invalidate(emailKey);
+        }
+        release(addressFailures, address, System.currentTimeMillis());
+    }
+
+    /**
+     * Gives back an attempt counted by {@link #acquireAttempt} that ended without a verdict on the
+     * credentials, such as a busy password hasher or a failed lookup.
+     */
+    public void releaseAttempt(String email, String address) {
+        long now = System.currentTimeMillis();
+        release(emailFailures, EmailCanonicalizer.canonicalize(email), now);
+        release(addressFailures, address, now);
+    }
+
+    private boolean tryAcquire(Cache<String, SlidingWindowCounter> attempts, String key, int limit, long now) {
+        if (key == null) {
+            return true;
+        }
+        return attempts.get(key, k -> new SlidingWindowCounter(windowMillis)).tryIncrement(now, limit);
+    }
+
+    private static void release(Cache<String, SlidingWindowCounter> attempts, String key, long now) {
+        if (key == null) {
+            return;
+        }
+        SlidingWindowCounter counter = attempts.getIfPresent(key);
+        if (counter != null) {
+            counter.decrement(now);
+        }
+    }
+
+    private LoginThrottledException throttled() {
+        return new LoginThrottledException("Too many failed login attempts, please try again later",
+                Math.max(1, windowMillis / 1000));
+    }
+
+    /**
+     * Sliding-window approximation from two fixed windows: the previous window's count is weighted by
+     * how much of it still overlaps the sliding window. Constant memory per key.
+     */
+    static final class SlidingWindowCounter {
+
+        private final long windowMillis;
+        private long currentWindowStart;
+        private int currentCount;
+        private int previousCount;
+
+        SlidingWindowCounter(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        /**
+         * Counts one more attempt unless the estimate has already reached {@code limit}.
+         */
+        synchronized boolean tryIncrement(long now, int limit) {
+            if (estimate(now) >= limit) {
+                return false;
+            }
+            currentCount++;
+            return true;
+        }
+
+        synchronized void decrement(long now) {
+            roll(now);
+            if (currentCount > 0) {
+                currentCount--;
+            }
+        }
+
+        synchronized double estimate(long now) {
+            roll(now);
+            double previousWeight = 1.0 - (double) (now - currentWindowStart) / windowMillis;
+            return previousCount * previousWeight + currentCount;
+        }
+
+        private void roll(long now) {
+            long windowStart = now - (now % windowMillis);
+            if (windowStart != currentWindowStart) {
+                previousCount = windowStart - currentWindowStart == windowMillis ? currentCount : 0;
+                currentCount = 0;
+                currentWindowStart = windowStart;
+            }
+        }
+    }
+}
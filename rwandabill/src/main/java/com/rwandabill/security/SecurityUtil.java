@@ -1,8 +1,11 @@
 package com.rwandabill.security;
 
-import com.rwandabill.entity.User;
-import com.rwandabill.repository.UserRepository;
+import com.rwandabill.cache.CachedUser;
+import com.rwandabill.cache.UserAccountCache;
+import com.rwandabill.entity.UserRole;
+import com.rwandabill.location.LocationDirectory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -11,33 +14,59 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class SecurityUtil {
 
-    private final UserRepository userRepository;
+    private final UserAccountCache userAccountCache;
+    private final LocationDirectory locationDirectory;
 
-    public User getCurrentUser() {
+    public CachedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated()) {
             String email = authentication.getName();
-            return userRepository.findByEmail(email)
+            return userAccountCache.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
         }
         throw new RuntimeException("No authenticated user found");
     }
 
+    public VerifiedToken getCurrentToken() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof VerifiedToken token) {
+            return token;
+        }
+        throw new RuntimeException("No authenticated user found");
+    }
+
     public Long getCurrentUserId() {
-        return getCurrentUser().getId();
+        return getCurrentToken().userId();
     }
 
     public String getCurrentUserEmail() {
-        return getCurrentUser().getEmail();
+        return getCurrentToken().subject();
     }
 
     public boolean isCurrentUserAdmin() {
-        User user = getCurrentUser();
-        return user.getRole().name().equals("ADMIN") || user.getRole().name().equals("SUPER_ADMIN");
+        UserRole role = getCurrentToken().role();
+        return role == UserRole.ADMIN || role == UserRole.SUPER_ADMIN;
     }
 
     public boolean isCurrentUserSuperAdmin() {
-        User user = getCurrentUser();
-        return user.getRole().name().equals("SUPER_ADMIN");
+        return getCurrentToken().role() == UserRole.SUPER_ADMIN;
+    }
+
+    /**
+     * Scope of the calling approver, taken from the token claims. Admins without a service or with a
+     * district outside the location dictionary get no scope at all rather than the national one.
+     */
+    public AccountScope getCurrentScope() {
+        VerifiedToken token = getCurrentToken();
+        if (token.role() == UserRole.SUPER_ADMIN) {
+            return AccountScope.NATIONAL;
+        }
+        if (token.role() != UserRole.ADMIN || token.service() == null) {
+            throw new AccessDeniedException("No approval scope for " + token.subject());
+        }
+        return locationDirectory.findDistrict(token.district())
+                .map(district -> new AccountScope(token.service(), (short) district.code()))
+                .orElseThrow(() -> new AccessDeniedException("Unknown district for " + token.subject()));
     }
 }
@@ -0,0 +1,49 @@
+package com.rwandabill.security;
+
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked by {@link JwtUtil#verify(String)}.
+ * Used as the authentication principal, so role checks and identity lookups are answered from the
+ * token itself without parsing it again or querying the database.
+ */
+public record VerifiedToken(String subject,
+                            Long userId,
+                            UserRole role,
+                            ServiceType service,
+                            String district,
+                            String sector,
+                            Instant expiresAt) implements AuthenticatedPrincipal {
+
+    // One immutable authority list per role, shared by every request
+    private static final Map<UserRole, List<GrantedAuthority>> ROLE_AUTHORITIES = new EnumMap<>(UserRole.class);
+
+    static {
+        for (UserRole role : UserRole.values()) {
+            ROLE_AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return role != null ? ROLE_AUTHORITIES.get(role) : Collections.emptyList();
+    }
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+}
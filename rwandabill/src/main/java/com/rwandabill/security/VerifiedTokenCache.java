@@ -0,0 +1,90 @@
+package com.rwandabill.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Size-bounded cache of tokens that already passed {@link JwtUtil#verify(String)}, keyed by the SHA-256
+ * digest of the raw token. Each entry expires at the token's own {@code exp} claim, so a repeat request
+ * with the same bearer token costs a hash lookup instead of a JSON parse plus HMAC check.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        // Exposes hit/miss/eviction counters as cache.* meters tagged cache=jwt.verified-tokens
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        // Invalid tokens are not cached: a null mapping result leaves the cache untouched
+        VerifiedToken verified = cache.get(digest(token), key -> jwtUtil.verify(token).orElse(null));
+
+        // Expiry is enforced lazily by the cache; re-check so an entry is never served past its exp
+        if (verified == null || verified.isExpired(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(verified);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class ExpireAtTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            return remainingNanos(token);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return remainingNanos(token);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static long remainingNanos(VerifiedToken token) {
+            Duration remaining = Duration.between(Instant.now(), token.expiresAt());
+            return remaining.isNegative() ? 0L : remaining.toNanos();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.rwandabill.service;
+
+import com.rwandabill.entity.AccountDirectoryEntry;
+import com.rwandabill.repository.AccountDirectoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class AccountDirectoryService {
+
+    private final AccountDirectoryRepository accountDirectoryRepository;
+
+    /**
+     * Resolves an account across users, admins and superadmins in one query. When the same email
+     * exists in several tables the users table wins, then admins, then superadmins.
+     */
+    @Transactional(readOnly = true)
+    public Optional<AccountDirectoryEntry> resolve(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return accountDirectoryRepository.findFirstByEmailOrderByPrecedenceAsc(email);
+    }
+}
@@ -0,0 +1,60 @@
+package com.rwandabill.service;
+
+import com.rwandabill.dto.UserResponse;
+import com.rwandabill.repository.UserJdbcRepository;
+import com.rwandabill.repository.UserRepository;
+import com.rwandabill.security.SecurityUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Work queue over pending users: each approver leases a disjoint batch, decides it through the regular
+ * approval endpoints, and the lease lapses on its own if the approver walks away.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ApprovalClaimService {
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final UserRepository userRepository;
+    private final SecurityUtil securityUtil;
+
+    @Value("${approval-claims.lease:PT10M}")
+    private Duration lease;
+
+    @Value("${approval-claims.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Transactional
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public List<UserResponse> claim(int size) {
+        String approverEmail = securityUtil.getCurrentUserEmail();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> claimed = userJdbcRepository.claimPending(approverEmail, securityUtil.getCurrentScope(),
+                Math.max(1, Math.min(size, maxBatchSize)), now, now.plus(lease));
+        if (claimed.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.debug("Approver {} claimed {} pending users", approverEmail, claimed.size());
+
+        return userRepository.findSummariesByIdIn(claimed).stream()
+                .map(UserResponse::fromSummary)
+                .toList();
+    }
+
+    @Transactional
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public int releaseClaims() {
+        return userJdbcRepository.releaseClaims(securityUtil.getCurrentUserEmail()).size();
+    }
+}
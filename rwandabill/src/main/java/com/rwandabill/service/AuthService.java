@@ -1,26 +1,38 @@
 package com.rwandabill.service;
 
+import com.rwandabill.cache.AccountInvalidationBus;
 import com.rwandabill.dto.AuthResponse;
 import com.rwandabill.dto.LoginRequest;
 import com.rwandabill.dto.SignupRequest;
 import java.util.Arrays;
 import java.util.stream.Collectors;
+import com.rwandabill.entity.AccountDirectoryEntry;
+import com.rwandabill.entity.AccountSource;
 import com.rwandabill.entity.User;
 import com.rwandabill.entity.AdminEntity;
 import com.rwandabill.entity.SuperAdminEntity;
 import com.rwandabill.entity.UserRole;
 import com.rwandabill.entity.ServiceType;
-import com.rwandabill.repository.UserRepository;
-import com.rwandabill.repository.AdminRepository;
+import com.rwandabill.exception.InvalidLocationException;
+import com.rwandabill.exception.ServiceBusyException;
+import com.rwandabill.location.LocationDirectory;
+import com.rwandabill.location.ResolvedLocation;
+import com.rwandabill.repository.AdminJdbcRepository;
+import com.rwandabill.repository.UserJdbcRepository;
 import com.rwandabill.repository.SuperAdminRepository;
+import com.rwandabill.security.EmailCanonicalizer;
 import com.rwandabill.security.JwtUtil;
+import com.rwandabill.security.LoginThrottle;
+import com.rwandabill.security.PasswordHasher;
+import com.rwandabill.security.SecurityUtil;
+import com.rwandabill.security.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -30,22 +42,21 @@ import java.util.Optional;
 @Slf4j
 public class AuthService {
 
-    private final UserRepository userRepository;
-    private final AdminRepository adminRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final AdminJdbcRepository adminJdbcRepository;
     private final SuperAdminRepository superAdminRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final AccountDirectoryService accountDirectoryService;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
-
-    @Transactional
+    private final LoginThrottle loginThrottle;
+    private final SecurityUtil securityUtil;
+    private final AccountInvalidationBus accountInvalidationBus;
+    private final LocationDirectory locationDirectory;
+    private final PlatformTransactionManager transactionManager;
+
+    // Signups hash the password before opening a transaction, so BCrypt and the wait for a hashing slot do
+    // not hold a pooled connection; only the insert runs in one
     public AuthResponse signup(SignupRequest request) {
-        // Check if user already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            return AuthResponse.builder()
-                    .success(false)
-                    .message("Email already registered")
-                    .build();
-        }
-
         // Validate service for admin role
         UserRole role = UserRole.valueOf(request.getRole().toUpperCase());
         if (role == UserRole.ADMIN && request.getService() == null) {
@@ -55,35 +66,43 @@ public class AuthService {
                     .build();
         }
 
+        ResolvedLocation location;
+        try {
+            location = locationDirectory.resolve(request.getDistrict(), request.getSector());
+        } catch (InvalidLocationException e) {
+            return invalidLocation(e);
+        }
+
         // Create new user with pending approval
         User.UserBuilder userBuilder = User.builder()
-                .email(request.getEmail().toLowerCase().trim())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .email(EmailCanonicalizer.canonicalize(request.getEmail()))
+                .password(passwordHasher.encode(request.getPassword()))
                 .fullName(request.getFullName().trim())
                 .telephone(request.getTelephone().trim())
-                .district(request.getDistrict().trim())
-                .sector(request.getSector().trim())
+                .district(location.district())
+                .sector(location.sector())
+                .districtCode(location.districtCode())
+                .sectorCode(location.sectorCode())
                 .role(role)
                 .isActive(false) // Inactive until approved
                 .approved(false) // Not approved by default
                 .emailVerified(false); // Email not verified yet
 
-        // Set service if role is admin
-        if (role == UserRole.ADMIN) {
-            try {
-                userBuilder.service(request.getService());
-            } catch (IllegalArgumentException e) {
-                return AuthResponse.builder()
-                        .success(false)
-                        .message("Invalid service type. Must be one of: " + 
-                                Arrays.stream(ServiceType.values())
-                                        .map(Enum::name)
-                                        .collect(Collectors.joining(", ")))
-                        .build();
+        // Users keep the service they signed up for too: it routes them to that service's approval queue
+        userBuilder.service(request.getService());
+
+        // One round trip: a duplicate email is reported by the unique constraint, not a prior lookup
+        User savedUser = userBuilder.build();
+        Boolean inserted = new TransactionTemplate(transactionManager).execute(status -> {
+            if (!userJdbcRepository.insertIfAbsent(savedUser)) {
+                return false;
             }
+            accountInvalidationBus.publish(savedUser.getId(), savedUser.getEmail());
+            return true;
+        });
+        if (!Boolean.TRUE.equals(inserted)) {
+            return emailAlreadyRegistered();
         }
-
-        User savedUser = userRepository.save(userBuilder.build());
         log.info("New user registered (pending approval): {}", savedUser.getEmail());
 
         return AuthResponse.builder()
@@ -102,7 +121,6 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
     public AuthResponse signupSuperAdmin(SignupRequest request) {
         log.info("Starting super admin registration for email: {}", request.getEmail());
         
@@ -134,25 +152,36 @@ public class AuthService {
                     .build();
         }
 
+        ResolvedLocation location;
+        try {
+            location = locationDirectory.resolve(request.getDistrict(), request.getSector());
+        } catch (InvalidLocationException e) {
+            return invalidLocation(e);
+        }
+
         // Create new super admin
         SuperAdminEntity superAdmin = SuperAdminEntity.builder()
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .email(EmailCanonicalizer.canonicalize(request.getEmail()))
+                .password(passwordHasher.encode(request.getPassword()))
                 .fullName(request.getFullName())
                 .telephone(request.getTelephone())
-                .district(request.getDistrict())
-                .sector(request.getSector())
+                .district(location.district())
+                .sector(location.sector())
+                .districtCode(location.districtCode())
+                .sectorCode(location.sectorCode())
                 .isActive(true)
                 .approved(true)
                 .emailVerified(true)
                 .build();
 
-        SuperAdminEntity savedSuperAdmin = superAdminRepository.save(superAdmin);
+        SuperAdminEntity savedSuperAdmin = new TransactionTemplate(transactionManager)
+                .execute(status -> superAdminRepository.save(superAdmin));
         log.info("Super admin created successfully: {}", savedSuperAdmin.getEmail());
 
 
         // Generate JWT token
-        String token = jwtUtil.generateToken(savedSuperAdmin.getEmail(), savedSuperAdmin.getId());
+        String token = jwtUtil.generateToken(savedSuperAdmin.getEmail(), savedSuperAdmin.getId(),
+                savedSuperAdmin.getRole(), null, savedSuperAdmin.getDistrict(), savedSuperAdmin.getSector());
 
         return AuthResponse.builder()
                 .success(true)
@@ -171,17 +200,8 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public AuthResponse signupAdmin(SignupRequest request) {
-        // Check if admin already exists
-        if (adminRepository.existsByEmail(request.getEmail())) {
-            return AuthResponse.builder()
-                    .success(false)
-                    .message("Email already registered")
-                    .build();
-        }
-
         // Validate service is provided
         if (request.getService() == null) {
             return AuthResponse.builder()
@@ -191,10 +211,10 @@ public class AuthService {
         }
 
         try {
-            // Get the current user (super admin) who is creating this admin
-            User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            // Get the current user (super admin) who is creating this admin from the verified token
+            VerifiedToken currentUser = securityUtil.getCurrentToken();
             
-            if (currentUser == null || currentUser.getRole() != UserRole.SUPER_ADMIN) {
+            if (currentUser.role() != UserRole.SUPER_ADMIN) {
                 return AuthResponse.builder()
                         .success(false)
                         .message("Only super admins can create admin accounts")
@@ -203,42 +223,53 @@ public class AuthService {
 
             // Get service type from request
             ServiceType serviceType = request.getService();
+            ResolvedLocation location = locationDirectory.resolve(request.getDistrict(), request.getSector());
 
             // Create new admin (approved by default when created by super admin)
             AdminEntity admin = AdminEntity.builder()
-                    .email(request.getEmail().toLowerCase().trim())
-                    .password(passwordEncoder.encode(request.getPassword()))
+                    .email(EmailCanonicalizer.canonicalize(request.getEmail()))
+                    .password(passwordHasher.encode(request.getPassword()))
                     .fullName(request.getFullName().trim())
                     .telephone(request.getTelephone().trim())
-                    .district(request.getDistrict().trim())
-                    .sector(request.getSector().trim())
+                    .district(location.district())
+                    .sector(location.sector())
+                    .districtCode(location.districtCode())
+                    .sectorCode(location.sectorCode())
                     .role(UserRole.ADMIN)
                     .service(serviceType)
                     .isActive(true)
                     .approved(true)
                     .approvedAt(LocalDateTime.now())
-                    .approvedBy(currentUser.getEmail())
+                    .approvedBy(currentUser.subject())
                     .emailVerified(true)
                     .build();
 
-            AdminEntity savedAdmin = adminRepository.save(admin);
-            log.info("New admin registered: {}", savedAdmin.getEmail());
+            Boolean inserted = new TransactionTemplate(transactionManager)
+                    .execute(status -> adminJdbcRepository.insertIfAbsent(admin));
+            if (!Boolean.TRUE.equals(inserted)) {
+                return emailAlreadyRegistered();
+            }
+            log.info("New admin registered: {}", admin.getEmail());
 
             return AuthResponse.builder()
                     .success(true)
-                    .id(savedAdmin.getId())
-                    .email(savedAdmin.getEmail())
-                    .fullName(savedAdmin.getFullName())
-                    .telephone(savedAdmin.getTelephone())
-                    .district(savedAdmin.getDistrict())
-                    .sector(savedAdmin.getSector())
-                    .role(savedAdmin.getRole())
-                    .service(savedAdmin.getService())
+                    .id(admin.getId())
+                    .email(admin.getEmail())
+                    .fullName(admin.getFullName())
+                    .telephone(admin.getTelephone())
+                    .district(admin.getDistrict())
+                    .sector(admin.getSector())
+                    .role(admin.getRole())
+                    .service(admin.getService())
                     .isActive(true)
                     .approved(true)
                     .message("Admin registered successfully")
                     .build();
                     
+        } catch (ServiceBusyException e) {
+            throw e;
+        } catch (InvalidLocationException e) {
+            return invalidLocation(e);
         } catch (IllegalArgumentException e) {
             log.error("Invalid service type: {}", request.getService());
             return AuthResponse.builder()
@@ -257,39 +288,39 @@ public class AuthService {
         }
     }
 
-    @Transactional(readOnly = true)
-    public AuthResponse login(LoginRequest request) {
-        // First try to find the user in all repositories
-        Optional<User> user = userRepository.findByEmail(request.getEmail());
-        Optional<AdminEntity> admin = adminRepository.findByEmail(request.getEmail());
-        Optional<SuperAdminEntity> superAdmin = superAdminRepository.findByEmail(request.getEmail());
+    // Not transactional: the throttle check and BCrypt verification must not hold a pooled connection,
+    // the directory lookup runs in its own read-only transaction
+    public AuthResponse login(LoginRequest request, String clientAddress) {
+        // Count the attempt, or reject it, before touching the database or BCrypt
+        loginThrottle.acquireAttempt(request.getEmail(), clientAddress);
+
+        Optional<AccountDirectoryEntry> account;
+        boolean matches;
+        try {
+            // Resolve the account across users, admins and superadmins in a single query
+            account = accountDirectoryService.resolve(request.getEmail());
+            matches = account.isPresent() && passwordHasher.matches(request.getPassword(), account.get().getPassword());
+        } catch (RuntimeException e) {
+            // A busy hasher or failed lookup says nothing about the credentials, so it must not count
+            loginThrottle.releaseAttempt(request.getEmail(), clientAddress);
+            throw e;
+        }
 
         // Check credentials and return appropriate response
-        if (user.isPresent()) {
-            User foundUser = user.get();
-            if (passwordEncoder.matches(request.getPassword(), foundUser.getPassword())) {
-                return buildAuthResponseFromUser(foundUser);
-            }
-        } else if (admin.isPresent()) {
-            AdminEntity foundAdmin = admin.get();
-            if (passwordEncoder.matches(request.getPassword(), foundAdmin.getPassword())) {
-                // Check if admin is approved
-                if (!foundAdmin.getApproved()) {
-                    return AuthResponse.builder()
-                            .success(false)
-                            .message("Your account is pending approval from Super Admin")
-                            .build();
-                }
-                return buildAuthResponseFromAdmin(foundAdmin);
-            }
-        } else if (superAdmin.isPresent()) {
-            SuperAdminEntity foundSuperAdmin = superAdmin.get();
-            if (passwordEncoder.matches(request.getPassword(), foundSuperAdmin.getPassword())) {
-                return buildAuthResponseFromSuperAdmin(foundSuperAdmin);
+        if (matches) {
+            AccountDirectoryEntry found = account.get();
+            loginThrottle.recordSuccess(request.getEmail(), clientAddress);
+            // Admins need Super Admin approval before they can log in
+            if (found.getSource() == AccountSource.ADMINS && !Boolean.TRUE.equals(found.getApproved())) {
+                return AuthResponse.builder()
+                        .success(false)
+                        .message("Your account is pending approval from Super Admin")
+                        .build();
             }
+            return buildAuthResponse(found);
         }
         
-        // If we get here, either the user wasn't found or the password was wrong
+        // If we get here, either the user wasn't found or the password was wrong; the attempt stays counted
         return AuthResponse.builder()
                 .success(false)
                 .message("Invalid email or password")
@@ -306,90 +337,53 @@ public class AuthService {
         }
 
         token = token.substring(7); // Remove 'Bearer ' prefix
-        String email = jwtUtil.extractEmail(token);
+        Optional<VerifiedToken> verified = jwtUtil.verify(token);
         
-        if (email == null) {
+        if (verified.isEmpty() || verified.get().subject() == null) {
             return AuthResponse.builder()
                     .success(false)
                     .message("Invalid or expired token")
                     .build();
         }
 
-        // Try to find user in each repository
-        Optional<User> user = userRepository.findByEmail(email);
-        if (user.isPresent()) {
-            return buildAuthResponseFromUser(user.get());
-        }
-
-        Optional<AdminEntity> admin = adminRepository.findByEmail(email);
-        if (admin.isPresent()) {
-            return buildAuthResponseFromAdmin(admin.get());
-        }
-
-        Optional<SuperAdminEntity> superAdmin = superAdminRepository.findByEmail(email);
-        if (superAdmin.isPresent()) {
-            return buildAuthResponseFromSuperAdmin(superAdmin.get());
-        }
-
-        return AuthResponse.builder()
-                .success(false)
-                .message("User not found")
-                .build();
+        return accountDirectoryService.resolve(verified.get().subject())
+                .map(this::buildAuthResponse)
+                .orElseGet(() -> AuthResponse.builder()
+                        .success(false)
+                        .message("User not found")
+                        .build());
     }
 
-    private AuthResponse buildAuthResponseFromUser(User user) {
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId());
+    private static AuthResponse emailAlreadyRegistered() {
         return AuthResponse.builder()
-                .success(true)
-                .id(user.getId())
-                .email(user.getEmail())
-                .fullName(user.getFullName())
-                .telephone(user.getTelephone())
-                .district(user.getDistrict())
-                .sector(user.getSector())
-                .role(user.getRole())
-                .isActive(user.getIsActive())
-                .approved(user.getApproved())
-                .emailVerified(user.getEmailVerified())
-                .token(token)
-                .message("Login successful")
+                .success(false)
+                .message("Email already registered")
                 .build();
     }
 
-    private AuthResponse buildAuthResponseFromAdmin(AdminEntity admin) {
-        String token = jwtUtil.generateToken(admin.getEmail(), admin.getId());
+    private static AuthResponse invalidLocation(InvalidLocationException e) {
         return AuthResponse.builder()
-                .success(true)
-                .id(admin.getId())
-                .email(admin.getEmail())
-                .fullName(admin.getFullName())
-                .telephone(admin.getTelephone())
-                .district(admin.getDistrict())
-                .sector(admin.getSector())
-                .role(admin.getRole())
-                .service(admin.getService())
-                .isActive(admin.getIsActive())
-                .approved(admin.getApproved())
-                .emailVerified(admin.getEmailVerified())
-                .token(token)
-                .message("Login successful")
+                .success(false)
+                .message(e.getMessage())
                 .build();
     }
 
-    private AuthResponse buildAuthResponseFromSuperAdmin(SuperAdminEntity superAdmin) {
-        String token = jwtUtil.generateToken(superAdmin.getEmail(), superAdmin.getId());
+    private AuthResponse buildAuthResponse(AccountDirectoryEntry account) {
+        String token = jwtUtil.generateToken(account.getEmail(), account.getId(), account.getRole(),
+                account.getService(), account.getDistrict(), account.getSector());
         return AuthResponse.builder()
                 .success(true)
-                .id(superAdmin.getId())
-                .email(superAdmin.getEmail())
-                .fullName(superAdmin.getFullName())
-                .telephone(superAdmin.getTelephone())
-                .district(superAdmin.getDistrict())
-                .sector(superAdmin.getSector())
-                .role(superAdmin.getRole())
-                .isActive(superAdmin.getIsActive())
-                .approved(superAdmin.getApproved())
-                .emailVerified(superAdmin.getEmailVerified())
+                .id(account.getId())
+                .email(account.getEmail())
+                .fullName(account.getFullName())
+                .telephone(account.getTelephone())
+                .district(account.getDistrict())
+                .sector(account.getSector())
+                .role(account.getRole())
+                .service(account.getService())
+                .isActive(account.getIsActive())
+                .approved(account.getApproved())
+                .emailVerified(account.getEmailVerified())
                 .token(token)
                 .message("Login successful")
                 .build();
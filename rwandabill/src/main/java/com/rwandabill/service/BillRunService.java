@@ -0,0 +1,276 @@
+package com.rwandabill.service;
+
+import com.rwandabill.dto.BillResponse;
+import com.rwandabill.dto.BillRunResponse;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.exception.InvalidTariffException;
+import com.rwandabill.exception.ResourceNotFoundException;
+import com.rwandabill.repository.BillJdbcRepository;
+import com.rwandabill.repository.BillJdbcRepository.NewBill;
+import com.rwandabill.repository.BillRepository;
+import com.rwandabill.repository.BillRunRepository;
+import com.rwandabill.repository.BillRunRepository.BillableUser;
+import com.rwandabill.repository.BillRunRepository.RunPartition;
+import com.rwandabill.repository.MeterReadingRepository;
+import com.rwandabill.security.SecurityUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates a billing period's bills for every active, approved user. A run is split into one partition
+ * per (district, service); partitions are processed in parallel on a fixed worker pool, each walking its
+ * users in id order in chunks that are inserted as one JDBC batch and committed together with the
+ * partition's checkpoint.
+ * <p>
+ * Runs are idempotent and resumable: bills are unique per (user, service, period), starting a period again
+ * reopens its run, and partitions left behind by a crashed or stopped worker are picked up again by the
+ * periodic sweep once their checkpoint is older than {@code bill-runs.stale-after}.
+ */
+@Service
+@Slf4j
+public class BillRunService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final BillRunRepository billRunRepository;
+    private final BillJdbcRepository billJdbcRepository;
+    private final BillRepository billRepository;
+    private final MeterReadingRepository meterReadingRepository;
+    private final ChargeCalculator chargeCalculator;
+    private final SecurityUtil securityUtil;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    // Partitions queued or running on this instance, so the sweep does not queue them twice
+    private final Set<Long> localPartitions = ConcurrentHashMap.newKeySet();
+    private final Counter billsCreated;
+    private final int chunkSize;
+    private final Duration staleAfter;
+    private final int dueDay;
+
+    public BillRunService(BillRunRepository billRunRepository,
+                          BillJdbcRepository billJdbcRepository,
+                          BillRepository billRepository,
+                          MeterReadingRepository meterReadingRepository,
+                          ChargeCalculator chargeCalculator,
+                          SecurityUtil securityUtil,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${bill-runs.workers:4}") int workerCount,
+                          @Value("${bill-runs.chunk-size:1000}") int chunkSize,
+                          @Value("${bill-runs.stale-after:PT5M}") Duration staleAfter,
+                          @Value("${billing.due-day:15}") int dueDay) {
+        this.billRunRepository = billRunRepository;
+        this.billJdbcRepository = billJdbcRepository;
+        this.billRepository = billRepository;
+        this.meterReadingRepository = meterReadingRepository;
+        this.chargeCalculator = chargeCalculator;
+        this.securityUtil = securityUtil;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.staleAfter = staleAfter;
+        this.dueDay = dueDay;
+
+        // Partitions per run are bounded by districts x services, so the queue needs no limit of its own
+        this.workers = new ThreadPoolExecutor(
+                workerCount, workerCount,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("bill-run-"));
+
+        this.billsCreated = Counter.builder("bill.runs.bills.created")
+                .description("Bills inserted by bill runs")
+                .register(meterRegistry);
+        Gauge.builder("bill.runs.partitions.queued", workers, e -> e.getQueue().size())
+                .description("Bill run partitions waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("bill.runs.partitions.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Bill run partitions being processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the run for {@code period}, or resumes it if it exists. Returns immediately; progress is
+     * reported by {@link #getRun(long)}.
+     *
+     * @throws InvalidTariffException if a partition to bill has no tariff; nothing is started then
+     */
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public BillRunResponse start(YearMonth period) {
+        String startedBy = securityUtil.getCurrentUserEmail();
+        LocalDateTime now = LocalDateTime.now();
+        long runId = transactionTemplate.execute(status -> {
+            long id = billRunRepository.openRun(period.atDay(1), startedBy, now);
+            int planned = billRunRepository.planPartitions(id, now);
+            checkTariffs(id);
+            log.info("Bill run {} for {} started by {}, {} new partitions", id, period, startedBy, planned);
+            return id;
+        });
+        long unbillable = billRunRepository.countUnbillableUsers();
+        if (unbillable > 0) {
+            log.warn("{} active users have no service or no known district and are not billed", unbillable);
+        }
+        // Closes a run that has nothing (left) to do
+        billRunRepository.finishRunIfDone(runId, now);
+        dispatch();
+        return getRun(runId);
+    }
+
+    /**
+     * Rejects the run before any bill is written if a partition it still has to bill has no tariff.
+     */
+    private void checkTariffs(long runId) {
+        List<String> uncovered = billRunRepository.findOpenServiceAreas(runId).stream()
+                .filter(area -> !chargeCalculator.covers(area.service(), area.districtCode()))
+                .map(area -> area.service() + " in district " + area.districtCode())
+                .toList();
+        if (!uncovered.isEmpty()) {
+            throw new InvalidTariffException("No tariff for " + String.join(", ", uncovered));
+        }
+    }
+
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public BillRunResponse getRun(long runId) {
+        return billRunRepository.findRun(runId)
+                .map(BillRunResponse::fromSummary)
+                .orElseThrow(() -> new ResourceNotFoundException("Bill run not found: " + runId));
+    }
+
+    /**
+     * Bills of the signed-in customer. The token's id is only unique within its account table, so the
+     * customer is looked up in users by the token's subject.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('USER')")
+    public List<BillResponse> getCurrentUserBills() {
+        return billRepository.findByUserIdOrderByPeriodDescServiceAsc(securityUtil.getCurrentUser().getId()).stream()
+                .map(BillResponse::fromEntity)
+                .toList();
+    }
+
+    /**
+     * Queues every partition that is waiting or was abandoned by its worker.
+     */
+    @Scheduled(fixedDelayString = "${bill-runs.resume-interval:PT1M}")
+    public void dispatch() {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(staleAfter);
+        for (Long partitionId : billRunRepository.findClaimablePartitionIds(staleBefore)) {
+            if (localPartitions.add(partitionId)) {
+                workers.execute(() -> runPartition(partitionId));
+            }
+        }
+    }
+
+    private void runPartition(long partitionId) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<RunPartition> claimed = billRunRepository.claimPartition(partitionId, now, now.minus(staleAfter));
+            if (claimed.isEmpty()) {
+                return;
+            }
+            RunPartition partition = claimed.get();
+            String error = null;
+            try {
+                if (!bill(partition)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Bill run {} partition {}/{} failed", partition.runId(), partition.districtCode(),
+                        partition.service(), e);
+                error = String.valueOf(e.getMessage());
+                error = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            }
+            billRunRepository.finishPartition(partition.id(), error, LocalDateTime.now());
+            billRunRepository.finishRunIfDone(partition.runId(), LocalDateTime.now());
+        } finally {
+            localPartitions.remove(partitionId);
+        }
+    }
+
+    /**
+     * Bills the partition from its checkpoint onwards. Returns false if it stopped early because the
+     * worker was interrupted or another worker took the partition over.
+     */
+    private boolean bill(RunPartition partition) {
+        LocalDate period = partition.period();
+        LocalDate nextMonth = period.plusMonths(1);
+        LocalDate dueDate = nextMonth.withDayOfMonth(Math.min(dueDay, nextMonth.lengthOfMonth()));
+        long afterUserId = partition.lastUserId();
+        boolean metered = partition.service() == ServiceType.WATER;
+        List<BillableUser> users;
+        while (!(users = billRunRepository.findBillableUsers(partition.districtCode(), partition.service(),
+                afterUserId, chunkSize)).isEmpty()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<BillableUser> chunk = users;
+            List<Long> userIds = chunk.stream().map(BillableUser::userId).toList();
+            long expectedUserId = afterUserId;
+            long lastUserId = userIds.get(userIds.size() - 1);
+            Integer created = transactionTemplate.execute(status -> {
+                // Usage is what no bill has charged yet, so readings imported after their month's run are
+                // charged on the next bill; the lock keeps imports from adding readings until they are marked
+                Map<Long, Long> consumption = Map.of();
+                if (metered) {
+                    meterReadingRepository.lockCustomers(userIds);
+                    consumption = meterReadingRepository.findUnbilledConsumption(userIds, nextMonth);
+                }
+                List<NewBill> bills = new ArrayList<>(chunk.size());
+                for (BillableUser user : chunk) {
+                    BillableUser billed = user.withConsumptionLiters(consumption.getOrDefault(user.userId(), 0L));
+                    bills.add(new NewBill(user.userId(), partition.runId(), partition.service(), period,
+                            partition.districtCode(), chargeCalculator.charge(billed, period), dueDate, now));
+                }
+                billJdbcRepository.insertBills(bills);
+                if (metered) {
+                    meterReadingRepository.markBilled(partition.runId(), period, userIds, nextMonth);
+                }
+                int count = billJdbcRepository.countRunBills(partition.runId(), partition.service(), period, userIds);
+                if (!billRunRepository.checkpoint(partition.id(), expectedUserId, lastUserId, count, now)) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return count;
+            });
+            if (created == null) {
+                log.info("Bill run {} partition {} was taken over by another worker", partition.runId(),
+                        partition.id());
+                return false;
+            }
+            billsCreated.increment(created);
+            afterUserId = lastUserId;
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupted partitions keep their checkpoint and are resumed by the sweep
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,115 @@
+package com.rwandabill.service;
+
+import com.rwandabill.cache.AccountInvalidationBus;
+import com.rwandabill.dto.BulkApprovalRequest;
+import com.rwandabill.dto.BulkApprovalResponse;
+import com.rwandabill.dto.BulkApprovalResponse.Outcome;
+import com.rwandabill.dto.BulkApprovalResponse.Status;
+import com.rwandabill.location.LocationDirectory;
+import com.rwandabill.location.LocationFilter;
+import com.rwandabill.repository.UserJdbcRepository;
+import com.rwandabill.security.AccountScope;
+import com.rwandabill.security.SecurityUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies one approval decision to many users with set-based UPDATE ... RETURNING statements,
+ * one short transaction per chunk so locks are never held across the whole batch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkApprovalService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final LocationDirectory locationDirectory;
+    private final SecurityUtil securityUtil;
+    private final AccountInvalidationBus accountInvalidationBus;
+    private final PlatformTransactionManager transactionManager;
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public BulkApprovalResponse apply(BulkApprovalRequest request) {
+        Long approverId = request.isApprove() ? securityUtil.getCurrentUser().getId() : null;
+        String approverEmail = securityUtil.getCurrentUserEmail();
+        AccountScope scope = securityUtil.getCurrentScope();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Outcome> outcomes = new ArrayList<>();
+
+        if (request.hasUserIds()) {
+            List<Long> ids = request.getUserIds().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+                outcomes.addAll(transaction.execute(status ->
+                        applyChunk(chunk, request, scope, approverId, approverEmail)));
+            }
+        } else {
+            // Filter mode: walk matching pending users in id order; rejected users stay pending but
+            // are never revisited because the walk only moves forward
+            LocationFilter location = locationDirectory.resolveFilter(request.getDistrict(), request.getSector());
+            long afterId = 0;
+            List<Long> chunk;
+            while (!(chunk = userJdbcRepository.findPendingIds(scope, location, request.getCreatedBefore(),
+                    afterId, CHUNK_SIZE)).isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1);
+                List<Long> ids = chunk;
+                outcomes.addAll(transaction.execute(status ->
+                        applyChunk(ids, request, scope, approverId, approverEmail)));
+            }
+        }
+
+        int updated = (int) outcomes.stream().filter(outcome -> outcome.getStatus() == Status.UPDATED).count();
+        log.info("Bulk {} by admin {}: {} of {} users updated",
+                request.isApprove() ? "approval" : "rejection", approverEmail,
+                updated, outcomes.size());
+
+        return BulkApprovalResponse.builder()
+                .approve(request.isApprove())
+                .requested(outcomes.size())
+                .updated(updated)
+                .outcomes(outcomes)
+                .build();
+    }
+
+    private List<Outcome> applyChunk(List<Long> ids, BulkApprovalRequest request, AccountScope scope,
+                                     Long approverId, String approverEmail) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> updated = new HashSet<>(request.isApprove()
+                ? userJdbcRepository.approvePending(ids, scope, approverId, approverEmail, now)
+                : userJdbcRepository.reject(ids, scope, request.getRejectionReason(), approverEmail, now));
+
+        // Batched per notification instead of one per account; emails are unchanged, so ids are enough
+        accountInvalidationBus.publishIds(updated);
+
+        List<Long> notUpdated = ids.stream().filter(id -> !updated.contains(id)).toList();
+        Set<Long> existing = notUpdated.isEmpty()
+                ? Collections.emptySet()
+                : userJdbcRepository.findExistingIds(notUpdated);
+
+        List<Outcome> outcomes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Status status = updated.contains(id) ? Status.UPDATED
+                    : existing.contains(id) ? Status.SKIPPED
+                    : Status.NOT_FOUND;
+            outcomes.add(new Outcome(id, status));
+        }
+        return outcomes;
+    }
+}
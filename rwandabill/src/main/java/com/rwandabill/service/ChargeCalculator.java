@@ -0,0 +1,23 @@
+package com.rwandabill.service;
+
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.repository.BillRunRepository.BillableUser;
+
+import java.time.LocalDate;
+
+/**
+ * Prices one user's bill for a billing period. Called from bill run workers concurrently, so
+ * implementations must be thread-safe and should not query per call.
+ */
+public interface ChargeCalculator {
+
+    /**
+     * Amount in whole Rwandan francs.
+     */
+    long charge(BillableUser user, LocalDate period);
+
+    /**
+     * Whether bills of {@code service} can be priced in the district.
+     */
+    boolean covers(ServiceType service, short districtCode);
+}
@@ -0,0 +1,92 @@
+package com.rwandabill.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader that yields one record at a time, so arbitrarily large uploads are parsed
+ * without loading the file. Handles quoted fields, doubled quotes and line breaks inside quotes.
+ * {@link #escape(String)} is the matching writer-side helper.
+ */
+class CsvRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+    private long recordNumber;
+
+    CsvRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next record, or {@code null} at end of input. Blank lines are skipped.
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int peek = reader.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (peek != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\r') {
+                // Swallowed; the following \n ends the record
+            } else if (ch == '\n') {
+                if (fields.isEmpty() && field.isEmpty()) {
+                    continue;
+                }
+                break;
+            } else {
+                field.append(ch);
+            }
+        }
+        if (!any || (c == -1 && fields.isEmpty() && field.isEmpty())) {
+            return null;
+        }
+        fields.add(field.toString());
+        recordNumber++;
+        return fields;
+    }
+
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
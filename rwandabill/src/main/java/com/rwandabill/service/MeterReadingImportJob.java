@@ -0,0 +1,79 @@
+package com.rwandabill.service;
+
+import com.rwandabill.dto.MeterReadingImportStatus;
+import com.rwandabill.dto.MeterReadingImportStatus.State;
+import com.rwandabill.security.AccountScope;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one meter-reading import, written by the worker thread and read by status polls. Flagged
+ * readings are stored and counted as accepted too.
+ */
+@Getter
+class MeterReadingImportJob {
+
+    private final String id;
+    private final String source;
+    // Null for files picked up from the drop directory
+    private final String ownerEmail;
+    private final AccountScope scope;
+    private final Path reportFile;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong flagged = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    MeterReadingImportJob(String id, String source, String ownerEmail, AccountScope scope, Path reportFile) {
+        this.id = id;
+        this.source = source;
+        this.ownerEmail = ownerEmail;
+        this.scope = scope;
+        this.reportFile = reportFile;
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        state = State.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        state = State.COMPLETED;
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = LocalDateTime.now();
+        state = State.FAILED;
+    }
+
+    boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    MeterReadingImportStatus toStatus() {
+        return MeterReadingImportStatus.builder()
+                .jobId(id)
+                .source(source)
+                .state(state)
+                .rowsRead(rowsRead.get())
+                .accepted(accepted.get())
+                .flagged(flagged.get())
+                .rejected(rejected.get())
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,511 @@
+package com.rwandabill.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.rwandabill.dto.MeterReadingImportStatus;
+import com.rwandabill.dto.MeterReadingImportStatus.State;
+import com.rwandabill.entity.MeterReadingAnomaly;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+import com.rwandabill.exception.ResourceNotFoundException;
+import com.rwandabill.exception.ServiceBusyException;
+import com.rwandabill.repository.MeterReadingRepository;
+import com.rwandabill.repository.MeterReadingRepository.MeterHistory;
+import com.rwandabill.repository.MeterReadingRepository.NewReading;
+import com.rwandabill.security.AccountScope;
+import com.rwandabill.security.SecurityUtil;
+import com.rwandabill.tariff.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports WATER meter readings from CSV files, uploaded or dropped into a watched directory, as background
+ * jobs. Files are read one record at a time and every chunk costs one lock, one history lookup and one
+ * batched insert in a single short transaction; with a single job worker by default, an import holds at
+ * most one database connection and never competes with the API for more.
+ * <p>
+ * Each reading is checked against the customer's previous reading: usage is the difference between the
+ * two registers. A register below the previous one is stored as {@link MeterReadingAnomaly#NEGATIVE_USAGE}
+ * without usage (it becomes the new baseline, as after a meter replacement), and usage above
+ * {@code spike-factor} times the customer's rolling average for the same number of days is stored as a
+ * {@link MeterReadingAnomaly#SPIKE}. Flagged readings are billed as read and listed in the job report for
+ * follow-up; they are left out of later rolling averages.
+ */
+@Service
+@Slf4j
+public class MeterReadingImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final List<String> REQUIRED_COLUMNS = List.of("user_id", "read_on", "reading_m3");
+    private static final String PROCESSING_DIRECTORY = "processing";
+    private static final String DONE_DIRECTORY = "done";
+    private static final String FAILED_DIRECTORY = "failed";
+    private static final String REJECTED = "REJECTED";
+
+    private final MeterReadingRepository meterReadingRepository;
+    private final SecurityUtil securityUtil;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor jobExecutor;
+    private final Cache<String, MeterReadingImportJob> jobs;
+    private final Map<MeterReadingAnomaly, Counter> anomalyCounters = new EnumMap<>(MeterReadingAnomaly.class);
+    private final Path dropDirectory;
+    private final int rollingWindow;
+    private final int spikeMinHistory;
+    private final double spikeFactor;
+    private final long spikeMinLiters;
+
+    public MeterReadingImportService(MeterReadingRepository meterReadingRepository,
+                                     SecurityUtil securityUtil,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${meter-readings.max-concurrent-jobs:1}") int maxConcurrentJobs,
+                                     @Value("${meter-readings.max-queued-jobs:4}") int maxQueuedJobs,
+                                     @Value("${meter-readings.retention:PT24H}") Duration retention,
+                                     @Value("${meter-readings.drop-directory:}") String dropDirectory,
+                                     @Value("${meter-readings.rolling-window:6}") int rollingWindow,
+                                     @Value("${meter-readings.spike-min-history:3}") int spikeMinHistory,
+                                     @Value("${meter-readings.spike-factor:3}") double spikeFactor,
+                                     @Value("${meter-readings.spike-min-m3:5}") String spikeMinM3) {
+        this.meterReadingRepository = meterReadingRepository;
+        this.securityUtil = securityUtil;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dropDirectory = dropDirectory.isBlank() ? null : Path.of(dropDirectory);
+        this.rollingWindow = rollingWindow;
+        this.spikeMinHistory = spikeMinHistory;
+        this.spikeFactor = spikeFactor;
+        this.spikeMinLiters = Money.parseLiters(spikeMinM3);
+
+        this.jobExecutor = new ThreadPoolExecutor(
+                maxConcurrentJobs, maxConcurrentJobs,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs),
+                new CustomizableThreadFactory("meter-import-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .removalListener((String id, MeterReadingImportJob job, RemovalCause cause) -> {
+                    if (job != null) {
+                        deleteQuietly(job.getReportFile());
+                    }
+                })
+                .build();
+
+        for (MeterReadingAnomaly anomaly : MeterReadingAnomaly.values()) {
+            anomalyCounters.put(anomaly, Counter.builder("meter.readings.flagged")
+                    .description("Meter readings stored with an anomaly")
+                    .tag("anomaly", anomaly.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("meter.readings.import.jobs.queued", jobExecutor, e -> e.getQueue().size())
+                .description("Meter reading imports waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("meter.readings.import.jobs.active", jobExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Meter reading imports currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an uploaded file. Admins can only record readings for customers of their own service and
+     * district; other rows are rejected.
+     */
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public MeterReadingImportStatus submit(MultipartFile file) throws IOException {
+        AccountScope scope = securityUtil.getCurrentScope();
+        Path upload = Files.createTempFile("meter-import-", ".csv");
+        file.transferTo(upload);
+
+        MeterReadingImportJob job = newJob(String.valueOf(file.getOriginalFilename()),
+                securityUtil.getCurrentUserEmail(), scope);
+        try {
+            jobExecutor.execute(() -> run(job, upload, null));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(upload);
+            deleteQuietly(job.getReportFile());
+            throw new ServiceBusyException("Too many meter reading imports in progress, please retry later", 60);
+        }
+        jobs.put(job.getId(), job);
+        log.info("Meter reading import {} submitted by {} ({} bytes)", job.getId(), job.getOwnerEmail(),
+                file.getSize());
+        return job.toStatus();
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public MeterReadingImportStatus getStatus(String jobId) {
+        return findOwnJob(jobId).toStatus();
+    }
+
+    /**
+     * Report of a finished import (rejected and flagged rows), or empty while the job is still running.
+     */
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public Optional<Path> getReportFile(String jobId) {
+        MeterReadingImportJob job = findOwnJob(jobId);
+        return job.isFinished() ? Optional.of(job.getReportFile()) : Optional.empty();
+    }
+
+    private MeterReadingImportJob findOwnJob(String jobId) {
+        MeterReadingImportJob job = jobs.getIfPresent(jobId);
+        if (job == null || !(Objects.equals(job.getOwnerEmail(), securityUtil.getCurrentUserEmail())
+                || securityUtil.isCurrentUserSuperAdmin())) {
+            throw new ResourceNotFoundException("Import job not found: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Picks up the {@code *.csv} files in the drop directory. Each file is claimed by moving it into
+     * {@code processing/}, so instances sharing the directory never import the same file twice; when done
+     * it is moved to {@code done/} or {@code failed/} together with its report. Writers should create files
+     * under another name and rename them to {@code .csv} once complete.
+     */
+    @Scheduled(fixedDelayString = "${meter-readings.drop-poll-interval:PT1M}")
+    public void pollDropDirectory() {
+        if (dropDirectory == null) {
+            return;
+        }
+        try {
+            Path processing = Files.createDirectories(dropDirectory.resolve(PROCESSING_DIRECTORY));
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dropDirectory, "*.csv")) {
+                for (Path file : files) {
+                    if (!Files.isRegularFile(file)) {
+                        continue;
+                    }
+                    Path claimed = processing.resolve(file.getFileName());
+                    try {
+                        Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (!submitDropped(claimed)) {
+                        // Queue full; left for the next poll
+                        Files.move(claimed, file, StandardCopyOption.ATOMIC_MOVE);
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not scan meter reading drop directory {}", dropDirectory, e);
+        }
+    }
+
+    private boolean submitDropped(Path file) throws IOException {
+        MeterReadingImportJob job = newJob("drop:" + file.getFileName(), null, AccountScope.NATIONAL);
+        try {
+            jobExecutor.execute(() -> run(job, file, dropDirectory));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(job.getReportFile());
+            return false;
+        }
+        jobs.put(job.getId(), job);
+        log.info("Meter reading import {} picked up {}", job.getId(), file.getFileName());
+        return true;
+    }
+
+    private static MeterReadingImportJob newJob(String source, String ownerEmail, AccountScope scope)
+            throws IOException {
+        return new MeterReadingImportJob(UUID.randomUUID().toString(), source, ownerEmail, scope,
+                Files.createTempFile("meter-import-report-", ".csv"));
+    }
+
+    /**
+     * Imports {@code input}, then deletes it, or archives it under {@code archiveDirectory} for files that
+     * came from the drop directory.
+     */
+    private void run(MeterReadingImportJob job, Path input, Path archiveDirectory) {
+        job.start();
+        try (CsvRecordReader csv = new CsvRecordReader(Files.newBufferedReader(input, StandardCharsets.UTF_8));
+             BufferedWriter report = Files.newBufferedWriter(job.getReportFile(), StandardCharsets.UTF_8)) {
+            report.write("row,user_id,read_on,outcome,reason\n");
+
+            Map<String, Integer> columns = resolveColumns(csv.next());
+            LocalDate today = LocalDate.now();
+            List<ParsedReading> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                job.getRowsRead().incrementAndGet();
+                ReadingRow row = ReadingRow.of(csv.getRecordNumber(), record, columns);
+                try {
+                    chunk.add(row.parse(today));
+                } catch (IllegalArgumentException e) {
+                    report(job.getRejected(), report, row, REJECTED, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(job, chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk, report);
+            }
+            job.complete();
+            log.info("Meter reading import {} completed: {} rows, {} accepted ({} flagged), {} rejected",
+                    job.getId(), job.getRowsRead().get(), job.getAccepted().get(), job.getFlagged().get(),
+                    job.getRejected().get());
+        } catch (Exception e) {
+            job.fail(e.getMessage());
+            log.error("Meter reading import {} failed after {} rows", job.getId(), job.getRowsRead().get(), e);
+        } finally {
+            if (archiveDirectory == null) {
+                deleteQuietly(input);
+            } else {
+                archive(job, input, archiveDirectory);
+            }
+        }
+    }
+
+    private static Map<String, Integer> resolveColumns(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private void importChunk(MeterReadingImportJob job, List<ParsedReading> chunk, BufferedWriter report)
+            throws IOException {
+        List<Long> userIds = chunk.stream().map(ParsedReading::userId).distinct().sorted().toList();
+        List<CheckedReading> results = transactionTemplate.execute(status -> checkAndInsert(job, chunk, userIds));
+        for (CheckedReading result : results) {
+            NewReading reading = result.reading();
+            if (reading == null) {
+                report(job.getRejected(), report, result.source().row(), REJECTED, result.remark());
+                continue;
+            }
+            job.getAccepted().incrementAndGet();
+            if (reading.anomaly() != null) {
+                anomalyCounters.get(reading.anomaly()).increment();
+                report(job.getFlagged(), report, result.source().row(), reading.anomaly().name(), result.remark());
+            }
+        }
+    }
+
+    /**
+     * Checks the chunk against the stored histories and inserts what passes, in one transaction that first
+     * locks the chunk's customers. Another import or a bill run touching the same customers waits for the
+     * commit and then sees these readings, so usage is never computed twice against the same previous
+     * reading.
+     */
+    private List<CheckedReading> checkAndInsert(MeterReadingImportJob job, List<ParsedReading> chunk,
+                                                List<Long> userIds) {
+        meterReadingRepository.lockCustomers(userIds);
+        Map<Long, MeterHistory> histories = meterReadingRepository.findHistories(userIds, rollingWindow);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<CheckedReading> results = new ArrayList<>(chunk.size());
+        List<NewReading> readings = new ArrayList<>(chunk.size());
+        for (ParsedReading reading : chunk) {
+            MeterHistory history = histories.get(reading.userId());
+            String problem = validate(job.getScope(), reading, history);
+            if (problem != null) {
+                results.add(new CheckedReading(reading, null, problem));
+                continue;
+            }
+            CheckedReading result = check(reading, history, job.getId(), now);
+            results.add(result);
+            readings.add(result.reading());
+            // Later rows of the same customer in this chunk are checked against this one
+            histories.put(reading.userId(), advance(history, result.reading()));
+        }
+        if (!readings.isEmpty()) {
+            meterReadingRepository.insertReadings(readings);
+        }
+        return results;
+    }
+
+    private static String validate(AccountScope scope, ParsedReading reading, MeterHistory history) {
+        if (history == null) {
+            return "Unknown user";
+        }
+        if (history.role() != UserRole.USER || history.service() != ServiceType.WATER) {
+            return "Not a WATER customer";
+        }
+        if (!scope.includes(history.service(), history.districtCode())) {
+            return "Customer outside your service and district";
+        }
+        if (history.lastReadOn() != null && !reading.readOn().isAfter(history.lastReadOn())) {
+            return reading.readOn().equals(history.lastReadOn())
+                    ? "A reading is already recorded for this date"
+                    : "Older than the latest reading of " + history.lastReadOn();
+        }
+        return null;
+    }
+
+    private CheckedReading check(ParsedReading reading, MeterHistory history, String importId, LocalDateTime now) {
+        if (history.lastReadOn() == null) {
+            // First reading, nothing to compare with yet
+            return new CheckedReading(reading, new NewReading(reading.userId(), reading.readOn(),
+                    reading.readingLiters(), null, null, null, importId, now), null);
+        }
+        int days = (int) ChronoUnit.DAYS.between(history.lastReadOn(), reading.readOn());
+        long usage = reading.readingLiters() - history.lastReadingLiters();
+        if (usage < 0) {
+            return new CheckedReading(reading, new NewReading(reading.userId(), reading.readOn(),
+                    reading.readingLiters(), null, days, MeterReadingAnomaly.NEGATIVE_USAGE, importId, now),
+                    "Register went back from " + Money.formatCubicMeters(history.lastReadingLiters()) + " to "
+                            + Money.formatCubicMeters(reading.readingLiters()) + " m3");
+        }
+        MeterReadingAnomaly anomaly = null;
+        String remark = null;
+        if (history.recentReadings() >= spikeMinHistory && history.recentDays() > 0 && usage >= spikeMinLiters) {
+            double expected = (double) history.recentLiters() * days / history.recentDays();
+            if (usage > spikeFactor * expected) {
+                anomaly = MeterReadingAnomaly.SPIKE;
+                remark = Money.formatCubicMeters(usage) + " m3 over " + days + " days, about "
+                        + Money.formatCubicMeters(Math.round(expected)) + " m3 expected";
+            }
+        }
+        return new CheckedReading(reading, new NewReading(reading.userId(), reading.readOn(),
+                reading.readingLiters(), usage, days, anomaly, importId, now), remark);
+    }
+
+    // The rolling totals are not trimmed back to the window here; that only matters within one chunk
+    private static MeterHistory advance(MeterHistory history, NewReading reading) {
+        boolean counts = reading.consumptionLiters() != null && reading.anomaly() == null;
+        return new MeterHistory(history.role(), history.service(), history.districtCode(), reading.readOn(),
+                reading.readingLiters(),
+                history.recentLiters() + (counts ? reading.consumptionLiters() : 0),
+                history.recentDays() + (counts ? reading.intervalDays() : 0),
+                history.recentReadings() + (counts ? 1 : 0));
+    }
+
+    private static void report(AtomicLong counter, BufferedWriter report, ReadingRow row, String outcome,
+                               String reason) throws IOException {
+        counter.incrementAndGet();
+        report.write(row.rowNumber() + "," + CsvRecordReader.escape(row.userId()) + ","
+                + CsvRecordReader.escape(row.readOn()) + "," + outcome + "," + CsvRecordReader.escape(reason) + "\n");
+    }
+
+    private static void archive(MeterReadingImportJob job, Path input, Path dropDirectory) {
+        Path target = dropDirectory.resolve(job.getState() == State.COMPLETED ? DONE_DIRECTORY : FAILED_DIRECTORY);
+        String name = job.getId() + "-" + input.getFileName();
+        try {
+            Files.createDirectories(target);
+            Files.copy(job.getReportFile(), target.resolve(name + ".report.csv"), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(input, target.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("Could not archive meter reading file {} to {}", input, target, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    private record ReadingRow(long rowNumber, String userId, String readOn, String reading) {
+
+        static ReadingRow of(long rowNumber, List<String> record, Map<String, Integer> columns) {
+            return new ReadingRow(rowNumber,
+                    field(record, columns, "user_id"),
+                    field(record, columns, "read_on"),
+                    field(record, columns, "reading_m3"));
+        }
+
+        private static String field(List<String> record, Map<String, Integer> columns, String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        /**
+         * @throws IllegalArgumentException with the reason the row is rejected
+         */
+        ParsedReading parse(LocalDate today) {
+            if (userId == null || readOn == null || reading == null) {
+                throw new IllegalArgumentException("user_id, read_on and reading_m3 are required");
+            }
+            long id;
+            LocalDate date;
+            long liters;
+            try {
+                id = Long.parseLong(userId);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid user_id: " + userId);
+            }
+            try {
+                date = LocalDate.parse(readOn);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid read_on, expected yyyy-MM-dd: " + readOn);
+            }
+            try {
+                liters = Money.parseLiters(reading);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid reading_m3: " + reading);
+            }
+            if (date.isAfter(today)) {
+                throw new IllegalArgumentException("Reading date is in the future");
+            }
+            if (liters < 0) {
+                throw new IllegalArgumentException("Negative meter register");
+            }
+            return new ParsedReading(this, id, date, liters);
+        }
+    }
+
+    private record ParsedReading(ReadingRow row, long userId, LocalDate readOn, long readingLiters) {
+    }
+
+    // Without a reading the row was rejected and remark is the reason; otherwise remark explains the anomaly
+    private record CheckedReading(ParsedReading source, NewReading reading, String remark) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.rwandabill.service;
+
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.repository.BillRunRepository.BillableUser;
+import com.rwandabill.tariff.TariffRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Prices bills with the current tariff table. A tariff reload applies from the next bill on.
+ */
+@Component
+@RequiredArgsConstructor
+public class TariffChargeCalculator implements ChargeCalculator {
+
+    private final TariffRegistry tariffRegistry;
+
+    @Override
+    public long charge(BillableUser user, LocalDate period) {
+        return tariffRegistry.current().charge(user.service(), user.districtCode(),
+                user.sectorCode() != null ? user.sectorCode() : -1, user.consumptionLiters());
+    }
+
+    @Override
+    public boolean covers(ServiceType service, short districtCode) {
+        return tariffRegistry.current().covers(service, districtCode);
+    }
+}
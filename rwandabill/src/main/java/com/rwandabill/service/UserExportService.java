@@ -0,0 +1,169 @@
+package com.rwandabill.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rwandabill.dto.AuthResponse;
+import com.rwandabill.entity.User;
+import com.rwandabill.entity.UserRole;
+import com.rwandabill.repository.UserRepository;
+import com.rwandabill.security.AccountScope;
+import com.rwandabill.security.SecurityUtil;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Streams account listings straight from a forward-only database cursor to the response, so memory use
+ * is flat regardless of the number of rows and the first bytes go out as soon as the first row is read.
+ * <p>
+ * Authorization is checked when the body is created (on the request thread); the body itself runs later
+ * on an MVC async thread inside its own read-only transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+    private static final String CSV_HEADER = "id,email,fullName,telephone,district,sector,role,service";
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    // Telephone numbers such as +250788123456 start with + but are never evaluated as formulas
+    private static final Pattern PHONE_NUMBER = Pattern.compile("\\+?[0-9 ]+");
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final SecurityUtil securityUtil;
+
+    @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ADMIN')")
+    public StreamingResponseBody exportUsers(Format format) {
+        // Resolved here: the body runs later on a thread without the caller's security context
+        AccountScope scope = securityUtil.getCurrentScope();
+        if (scope.isNational()) {
+            return out -> write(() -> userRepository.streamByRoleIn(EnumSet.of(UserRole.USER)), format, out);
+        }
+        return out -> write(() -> userRepository.streamScopedByRole(UserRole.USER, scope.service(),
+                scope.districtCode()), format, out);
+    }
+
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public StreamingResponseBody exportAdmins(Format format) {
+        return out -> write(() -> userRepository.streamByRoleIn(EnumSet.of(UserRole.ADMIN, UserRole.SUPER_ADMIN)),
+                format, out);
+    }
+
+    private void write(Supplier<Stream<User>> query, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        writer.flush();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(status -> {
+                try (Stream<User> users = query.get()) {
+                    int[] written = {0};
+                    users.forEach(user -> {
+                        writeRow(writer, format, user);
+                        // Keep the persistence context empty so it does not grow with the result set
+                        entityManager.detach(user);
+                        if (++written[0] % FLUSH_EVERY_ROWS == 0) {
+                            flush(writer);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-stream
+            log.warn("User export aborted: {}", e.getMessage());
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeRow(Writer writer, Format format, User user) {
+        try {
+            if (format == Format.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(toResponse(user)));
+            } else {
+                writer.write(toCsvLine(user));
+            }
+            writer.write('\n');
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user " + user.getId(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(Writer writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static AuthResponse toResponse(User user) {
+        return AuthResponse.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .telephone(user.getTelephone())
+                .district(user.getDistrict())
+                .sector(user.getSector())
+                .role(user.getRole())
+                .service(user.getService())
+                .build();
+    }
+
+    private static String toCsvLine(User user) {
+        return String.join(",",
+                String.valueOf(user.getId()),
+                csvCell(user.getEmail()),
+                csvCell(user.getFullName()),
+                csvCell(user.getTelephone()),
+                csvCell(user.getDistrict()),
+                csvCell(user.getSector()),
+                user.getRole() != null ? user.getRole().name() : "",
+                user.getService() != null ? user.getService().name() : "");
+    }
+
+    /**
+     * Escapes a user-supplied value, prefixing it with {@code '} if it starts with a character that makes
+     * spreadsheets evaluate the cell as a formula. Plain phone numbers are left as they are.
+     */
+    private static String csvCell(String value) {
+        if (value != null && !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0
+                && !PHONE_NUMBER.matcher(value).matches()) {
+            value = "'" + value;
+        }
+        return CsvRecordReader.escape(value);
+    }
+}
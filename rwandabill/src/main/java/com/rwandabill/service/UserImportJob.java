@@ -0,0 +1,74 @@
+package com.rwandabill.service;
+
+import com.rwandabill.dto.UserImportStatus;
+import com.rwandabill.dto.UserImportStatus.State;
+import com.rwandabill.security.AccountScope;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import, written by the worker thread and read by status polls.
+ */
+@Getter
+class UserImportJob {
+
+    private final String id;
+    private final String ownerEmail;
+    private final Long approverId;
+    private final AccountScope scope;
+    private final Path rejectsFile;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    UserImportJob(String id, String ownerEmail, Long approverId, AccountScope scope, Path rejectsFile) {
+        this.id = id;
+        this.ownerEmail = ownerEmail;
+        this.approverId = approverId;
+        this.scope = scope;
+        this.rejectsFile = rejectsFile;
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        state = State.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        state = State.COMPLETED;
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = LocalDateTime.now();
+        state = State.FAILED;
+    }
+
+    boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    UserImportStatus toStatus() {
+        return UserImportStatus.builder()
+                .jobId(id)
+                .state(state)
+                .rowsRead(rowsRead.get())
+                .imported(imported.get())
+                .rejected(rejected.get())
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,392 @@
+package com.rwandabill.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.rwandabill.dto.SignupRequest;
+import com.rwandabill.dto.UserImportStatus;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.exception.InvalidLocationException;
+import com.rwandabill.exception.ResourceNotFoundException;
+import com.rwandabill.exception.ServiceBusyException;
+import com.rwandabill.location.LocationDirectory;
+import com.rwandabill.location.ResolvedLocation;
+import com.rwandabill.repository.UserJdbcRepository;
+import com.rwandabill.repository.UserJdbcRepository.NewUser;
+import com.rwandabill.security.AccountScope;
+import com.rwandabill.security.EmailCanonicalizer;
+import com.rwandabill.security.SecurityUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Imports USER accounts from an uploaded CSV as a background job. The file is read one record at a time,
+ * and every chunk of valid rows costs one duplicate lookup, one id reservation and one batched insert.
+ * Passwords are hashed in parallel on a pool that is separate from {@link com.rwandabill.security.PasswordHasher},
+ * so a large import never delays interactive logins.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("email", "password", "fullname", "telephone", "district", "sector");
+    private static final String SERVICE_COLUMN = "service";
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final LocationDirectory locationDirectory;
+    private final SecurityUtil securityUtil;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor jobExecutor;
+    private final ThreadPoolExecutor hashingExecutor;
+    private final Cache<String, UserImportJob> jobs;
+
+    public UserImportService(UserJdbcRepository userJdbcRepository,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             LocationDirectory locationDirectory,
+                             SecurityUtil securityUtil,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${user-import.max-concurrent-jobs:1}") int maxConcurrentJobs,
+                             @Value("${user-import.max-queued-jobs:4}") int maxQueuedJobs,
+                             @Value("${user-import.hashing-threads:0}") int hashingThreads,
+                             @Value("${user-import.retention:PT24H}") Duration retention) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.locationDirectory = locationDirectory;
+        this.securityUtil = securityUtil;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.jobExecutor = new ThreadPoolExecutor(
+                maxConcurrentJobs, maxConcurrentJobs,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs),
+                new CustomizableThreadFactory("user-import-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Half the CPUs by default so interactive hashing keeps headroom; one chunk per running job can
+        // be queued, beyond that the submitting job thread hashes itself (back-pressure)
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashingExecutor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CHUNK_SIZE * maxConcurrentJobs),
+                new CustomizableThreadFactory("user-import-hash-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .removalListener((String id, UserImportJob job, RemovalCause cause) -> {
+                    if (job != null) {
+                        deleteQuietly(job.getRejectsFile());
+                    }
+                })
+                .build();
+
+        Gauge.builder("user.import.jobs.queued", jobExecutor, e -> e.getQueue().size())
+                .description("User import jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("user.import.jobs.active", jobExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("User import jobs currently running")
+                .register(meterRegistry);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public UserImportStatus submit(MultipartFile file, boolean approve) throws IOException {
+        Long approverId = approve ? securityUtil.getCurrentUser().getId() : null;
+        AccountScope scope = securityUtil.getCurrentScope();
+        Path upload = Files.createTempFile("user-import-", ".csv");
+        Path rejects = Files.createTempFile("user-import-rejects-", ".csv");
+        file.transferTo(upload);
+
+        UserImportJob job = new UserImportJob(UUID.randomUUID().toString(),
+                securityUtil.getCurrentUserEmail(), approverId, scope, rejects);
+        try {
+            jobExecutor.execute(() -> run(job, upload));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(upload);
+            deleteQuietly(rejects);
+            throw new ServiceBusyException("Too many imports in progress, please retry later", 60);
+        }
+        jobs.put(job.getId(), job);
+        log.info("User import {} submitted by {} ({} bytes)", job.getId(), job.getOwnerEmail(), file.getSize());
+        return job.toStatus();
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public UserImportStatus getStatus(String jobId) {
+        return findOwnJob(jobId).toStatus();
+    }
+
+    /**
+     * Rejects file of a finished import, or empty while the job is still running.
+     */
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public Optional<Path> getRejectsFile(String jobId) {
+        UserImportJob job = findOwnJob(jobId);
+        return job.isFinished() ? Optional.of(job.getRejectsFile()) : Optional.empty();
+    }
+
+    private UserImportJob findOwnJob(String jobId) {
+        UserImportJob job = jobs.getIfPresent(jobId);
+        if (job == null || !(job.getOwnerEmail().equals(securityUtil.getCurrentUserEmail())
+                || securityUtil.isCurrentUserSuperAdmin())) {
+            throw new ResourceNotFoundException("Import job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(UserImportJob job, Path upload) {
+        job.start();
+        try (CsvRecordReader csv = new CsvRecordReader(Files.newBufferedReader(upload, StandardCharsets.UTF_8));
+             BufferedWriter rejects = Files.newBufferedWriter(job.getRejectsFile(), StandardCharsets.UTF_8)) {
+            rejects.write("row,email,reason\n");
+
+            Map<String, Integer> columns = resolveColumns(csv.next());
+            Set<String> seenEmails = new HashSet<>();
+            List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                job.getRowsRead().incrementAndGet();
+                ImportRow row = ImportRow.of(csv.getRecordNumber(), record, columns);
+                String problem = validate(job.getScope(), row);
+                if (problem == null && !seenEmails.add(row.email())) {
+                    problem = "Duplicate email in file";
+                }
+                if (problem != null) {
+                    reject(job, rejects, row, problem);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(job, chunk, rejects);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk, rejects);
+            }
+            job.complete();
+            log.info("User import {} completed: {} rows, {} imported, {} rejected", job.getId(),
+                    job.getRowsRead().get(), job.getImported().get(), job.getRejected().get());
+        } catch (Exception e) {
+            job.fail(e.getMessage());
+            log.error("User import {} failed after {} rows", job.getId(), job.getRowsRead().get(), e);
+        } finally {
+            deleteQuietly(upload);
+        }
+    }
+
+    private static Map<String, Integer> resolveColumns(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    // Same constraints as self-service signup, plus the importer's scope
+    private String validate(AccountScope scope, ImportRow row) {
+        if (row.serviceName() != null && row.service() == null) {
+            return "Invalid service type: " + row.serviceName();
+        }
+        SignupRequest request = new SignupRequest();
+        request.setEmail(row.email());
+        request.setPassword(row.password());
+        request.setFullName(row.fullName());
+        request.setTelephone(row.telephone());
+        request.setDistrict(row.district());
+        request.setSector(row.sector());
+        request.setService(row.service());
+        request.setRole("USER");
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        ResolvedLocation location;
+        try {
+            location = locationDirectory.resolve(row.district(), row.sector());
+        } catch (InvalidLocationException e) {
+            return e.getMessage();
+        }
+        if (!scope.includes(row.service(), location.districtCode())) {
+            return "Account outside your service and district";
+        }
+        return null;
+    }
+
+    private void importChunk(UserImportJob job, List<ImportRow> chunk, BufferedWriter rejects) throws IOException {
+        Set<String> existing = userJdbcRepository.findExistingEmails(chunk.stream().map(ImportRow::email).toList());
+        List<ImportRow> fresh = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (existing.contains(row.email())) {
+                reject(job, rejects, row, "Email already registered");
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hashAll(fresh);
+        List<Long> ids = userJdbcRepository.reserveIds(fresh.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<NewUser> users = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            ImportRow row = fresh.get(i);
+            // Already checked by validate, this only picks up the codes and official names
+            ResolvedLocation location = locationDirectory.resolve(row.district(), row.sector());
+            users.add(new NewUser(ids.get(i), row.email(), hashes.get(i), row.fullName(), row.telephone(),
+                    location.district(), location.sector(), location.districtCode(), location.sectorCode(),
+                    row.service(), job.getApproverId(), now));
+        }
+
+        Set<Long> inserted = transactionTemplate.execute(status -> {
+            userJdbcRepository.insertUsers(users);
+            return userJdbcRepository.findExistingIds(ids);
+        });
+        for (int i = 0; i < fresh.size(); i++) {
+            if (!inserted.contains(ids.get(i))) {
+                reject(job, rejects, fresh.get(i), "Email already registered");
+            }
+        }
+        job.getImported().addAndGet(inserted.size());
+    }
+
+    private List<String> hashAll(List<ImportRow> rows) {
+        List<Future<String>> futures = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            futures.add(hashingExecutor.submit(() -> passwordEncoder.encode(row.password())));
+        }
+        List<String> hashes = new ArrayList<>(rows.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    private static void reject(UserImportJob job, BufferedWriter rejects, ImportRow row, String reason)
+            throws IOException {
+        job.getRejected().incrementAndGet();
+        rejects.write(row.rowNumber() + "," + CsvRecordReader.escape(row.email()) + ","
+                + CsvRecordReader.escape(reason) + "\n");
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        hashingExecutor.shutdownNow();
+    }
+
+    private record ImportRow(long rowNumber, String email, String password, String fullName, String telephone,
+                             String district, String sector, String serviceName, ServiceType service) {
+
+        static ImportRow of(long rowNumber, List<String> record, Map<String, Integer> columns) {
+            String email = field(record, columns, "email");
+            String serviceName = field(record, columns, SERVICE_COLUMN);
+            return new ImportRow(rowNumber,
+                    EmailCanonicalizer.canonicalize(email),
+                    rawField(record, columns, "password"),
+                    field(record, columns, "fullname"),
+                    field(record, columns, "telephone"),
+                    field(record, columns, "district"),
+                    field(record, columns, "sector"),
+                    serviceName,
+                    parseService(serviceName));
+        }
+
+        private static String field(List<String> record, Map<String, Integer> columns, String name) {
+            String value = rawField(record, columns, name);
+            if (value == null) {
+                return null;
+            }
+            value = value.trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        // Passwords are taken verbatim, surrounding spaces included
+        private static String rawField(List<String> record, Map<String, Integer> columns, String name) {
+            Integer index = columns.get(name);
+            return index != null && index < record.size() ? record.get(index) : null;
+        }
+
+        private static ServiceType parseService(String name) {
+            if (name == null) {
+                return null;
+            }
+            try {
+                return ServiceType.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
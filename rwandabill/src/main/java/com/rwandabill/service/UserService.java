@@ -1,23 +1,47 @@
 package com.rwandabill.service;
 
+import com.rwandabill.cache.AccountInvalidationBus;
+import com.rwandabill.cache.CachedUser;
+import com.rwandabill.cache.ListingCountCache;
+import com.rwandabill.cache.UserAccountCache;
 import com.rwandabill.dto.AuthResponse;
+import com.rwandabill.dto.CursorPage;
+import com.rwandabill.dto.PageCursor;
 import com.rwandabill.dto.UserApprovalRequest;
 import com.rwandabill.dto.UserResponse;
+import com.rwandabill.dto.UserSearchResult;
+import com.rwandabill.dto.UserSummary;
+import com.rwandabill.entity.ApprovalState;
 import com.rwandabill.entity.ServiceType;
 import com.rwandabill.entity.User;
 import com.rwandabill.entity.UserRole;
+import com.rwandabill.exception.ClaimConflictException;
 import com.rwandabill.exception.ResourceNotFoundException;
+import com.rwandabill.location.LocationDirectory;
+import com.rwandabill.location.LocationFilter;
+import com.rwandabill.location.ResolvedLocation;
+import com.rwandabill.repository.UserJdbcRepository;
 import com.rwandabill.repository.UserRepository;
+import com.rwandabill.repository.UserSearchRepository;
+import com.rwandabill.security.AccountScope;
+import com.rwandabill.security.PasswordHasher;
 import com.rwandabill.security.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,14 +51,109 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
     private final UserRepository userRepository;
+    private final UserJdbcRepository userJdbcRepository;
     private final SecurityUtil securityUtil;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final UserAccountCache userAccountCache;
+    private final AccountInvalidationBus accountInvalidationBus;
+    private final ListingCountCache listingCountCache;
+    private final UserSearchRepository userSearchRepository;
+    private final LocationDirectory locationDirectory;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${user-search.similarity-threshold:0.4}")
+    private double searchSimilarityThreshold;
     
     @Transactional(readOnly = true)
     public Page<UserResponse> findPendingApprovals(Pageable pageable) {
-        return userRepository.findByApprovedFalseAndRole(UserRole.USER, pageable)
-                .map(UserResponse::fromEntity);
+        AccountScope scope = securityUtil.getCurrentScope();
+        Page<UserSummary> page = scope.isNational()
+                ? userRepository.findPendingSummaries(UserRole.USER, pageable)
+                : userRepository.findScopedPendingSummaries(UserRole.USER, scope.service(), scope.districtCode(),
+                        pageable);
+        return page.map(UserResponse::fromSummary);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> findPendingApprovals(String cursor, int size, boolean includeTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        // One extra row tells us whether another page exists without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        AccountScope scope = securityUtil.getCurrentScope();
+        List<UserSummary> rows;
+        if (scope.isNational()) {
+            rows = after == null
+                    ? userRepository.findPendingPage(UserRole.USER, limit)
+                    : userRepository.findPendingPageAfter(UserRole.USER, after.createdAt(), after.id(), limit);
+        } else {
+            rows = after == null
+                    ? userRepository.findScopedPendingPage(UserRole.USER, scope.service(), scope.districtCode(), limit)
+                    : userRepository.findScopedPendingPageAfter(UserRole.USER, scope.service(), scope.districtCode(),
+                            after.createdAt(), after.id(), limit);
+        }
+
+        // Each scope keeps its own cached count
+        Long total = includeTotal
+                ? listingCountCache.get("pending:" + UserRole.USER + ":" + scope.cacheKey(),
+                        () -> scope.isNational()
+                                ? userRepository.countByApprovedFalseAndRole(UserRole.USER)
+                                : userRepository.countByApprovedFalseAndRoleAndServiceAndDistrictCode(
+                                        UserRole.USER, scope.service(), scope.districtCode()))
+                : null;
+        return toCursorPage(rows, pageSize, total);
+    }
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ADMIN')")
+    public CursorPage<UserResponse> listUsersByRole(UserRole role, String cursor, int size, boolean includeTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = clampPageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        AccountScope scope = securityUtil.getCurrentScope();
+        List<UserSummary> rows;
+        if (scope.isNational()) {
+            rows = after == null
+                    ? userRepository.findRolePage(role, limit)
+                    : userRepository.findRolePageAfter(role, after.createdAt(), after.id(), limit);
+        } else {
+            rows = after == null
+                    ? userRepository.findScopedRolePage(role, scope.service(), scope.districtCode(), limit)
+                    : userRepository.findScopedRolePageAfter(role, scope.service(), scope.districtCode(),
+                            after.createdAt(), after.id(), limit);
+        }
+
+        Long total = includeTotal
+                ? listingCountCache.get("role:" + role + ":" + scope.cacheKey(),
+                        () -> scope.isNational()
+                                ? userRepository.countByRole(role)
+                                : userRepository.countByRoleAndServiceAndDistrictCode(role, scope.service(),
+                                        scope.districtCode()))
+                : null;
+        return toCursorPage(rows, pageSize, total);
+    }
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ADMIN')")
+    public Slice<UserSearchResult> searchUsers(String term, String district, String sector, ServiceType service,
+                                               ApprovalState approvalState, int page, int size) {
+        int pageSize = clampPageSize(size);
+        int offset = Math.max(0, page) * pageSize;
+        Pageable pageable = PageRequest.of(Math.max(0, page), pageSize);
+        // Ranked results are only useful near the top; deep pages would scan every fuzzy match
+        if (offset >= MAX_SEARCH_RESULTS) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        userSearchRepository.setSimilarityThreshold(searchSimilarityThreshold);
+        LocationFilter location = locationDirectory.resolveFilter(district, sector);
+        List<UserSearchResult> rows = userSearchRepository.search(term, securityUtil.getCurrentScope(), location,
+                service, approvalState, offset, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize && offset + pageSize < MAX_SEARCH_RESULTS;
+        return new SliceImpl<>(rows.size() > pageSize ? rows.subList(0, pageSize) : rows, pageable, hasMore);
     }
     
     @Transactional
@@ -42,15 +161,29 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
                 
-        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String currentUserEmail = securityUtil.getCurrentUserEmail();
+
+        if (!securityUtil.getCurrentScope().includes(user.getService(), user.getDistrictCode())) {
+            throw new AccessDeniedException("User " + userId + " is outside your approval scope");
+        }
+        if (request.getVersion() != null && !request.getVersion().equals(user.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(User.class, userId);
+        }
+        if (user.getClaimedBy() != null && !user.getClaimedBy().equals(currentUserEmail)
+                && user.getClaimExpiresAt() != null && user.getClaimExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new ClaimConflictException("User " + userId + " is claimed by another approver until "
+                    + user.getClaimExpiresAt());
+        }
+        user.setClaimedBy(null);
+        user.setClaimExpiresAt(null);
         
         if (request.isApprove()) {
             user.setApproved(true);
             user.setApprovedAt(LocalDateTime.now());
-            user.setApprovedBy(currentUser);
+            user.setApprovedBy(userRepository.getReferenceById(securityUtil.getCurrentUser().getId()));
             user.setIsActive(true);
             user.setRejectionReason(null);
-            log.info("User {} approved by admin {}", user.getEmail(), currentUser.getEmail());
+            log.info("User {} approved by admin {}", user.getEmail(), currentUserEmail);
             
             // TODO: Send approval email to user
         } else {
@@ -59,40 +192,48 @@ public class UserService {
             user.setApprovedBy(null);
             user.setIsActive(false);
             user.setRejectionReason(request.getRejectionReason());
-            log.info("User {} rejected by admin {}", user.getEmail(), currentUser.getEmail());
+            log.info("User {} rejected by admin {}", user.getEmail(), currentUserEmail);
             
             // TODO: Send rejection email to user with reason
         }
         
         User updatedUser = userRepository.save(user);
+        accountInvalidationBus.publish(updatedUser.getId(), updatedUser.getEmail());
         return UserResponse.fromEntity(updatedUser);
     }
     
     @Transactional(readOnly = true)
     public UserResponse getUserApprovalStatus(Long userId) {
-        return userRepository.findById(userId)
-                .map(UserResponse::fromEntity)
+        UserSummary user = userRepository.findSummaryById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        if (!securityUtil.getCurrentScope().includes(user.service(), user.districtCode())) {
+            throw new AccessDeniedException("User " + userId + " is outside your approval scope");
+        }
+        return UserResponse.fromSummary(user);
     }
 
     @Transactional(readOnly = true)
     public AuthResponse getCurrentUser() {
         String email = securityUtil.getCurrentUserEmail();
-        User user = userRepository.findByEmail(email)
+        CachedUser user = userAccountCache.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
         return convertToAuthResponse(user);
     }
 
     @Transactional(readOnly = true)
-    public User getUserById(Long userId) {
-        return userRepository.findById(userId)
+    public CachedUser getUserById(Long userId) {
+        return userAccountCache.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
     }
 
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ADMIN')")
     public List<AuthResponse> getAllUsers() {
-        List<User> users = userRepository.findByRole(UserRole.USER);
+        AccountScope scope = securityUtil.getCurrentScope();
+        List<User> users = scope.isNational()
+                ? userRepository.findByRole(UserRole.USER)
+                : userRepository.findByRoleAndServiceAndDistrictCode(UserRole.USER, scope.service(),
+                        scope.districtCode());
         return users.stream()
                 .map(this::convertToAuthResponse)
                 .collect(Collectors.toList());
@@ -109,51 +250,62 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    // Not transactional: the password is hashed first, then only the insert runs in a transaction
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public AuthResponse createAdmin(String email, String password, String fullName, String telephone, String district, String sector, ServiceType service) {
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already registered");
-        }
-
+        ResolvedLocation location = locationDirectory.resolve(district, sector);
         User admin = User.builder()
                 .email(email)
-                .password(passwordEncoder.encode(password))
+                .password(passwordHasher.encode(password))
                 .fullName(fullName)
                 .telephone(telephone)
-                .district(district)
-                .sector(sector)
+                .district(location.district())
+                .sector(location.sector())
+                .districtCode(location.districtCode())
+                .sectorCode(location.sectorCode())
                 .service(service)
                 .role(UserRole.ADMIN)
                 .isActive(true)
                 .build();
 
-        User savedAdmin = userRepository.save(admin);
-        log.info("New admin created: {}", savedAdmin.getEmail());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!userJdbcRepository.insertIfAbsent(admin)) {
+                throw new RuntimeException("Email already registered");
+            }
+            accountInvalidationBus.publish(admin.getId(), admin.getEmail());
+        });
+        log.info("New admin created: {}", admin.getEmail());
 
-        return convertToAuthResponse(savedAdmin);
+        return convertToAuthResponse(admin);
     }
 
-    @Transactional
+    // Not transactional, see createAdmin
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public AuthResponse createSuperAdmin(String email, String password, String fullName, String telephone, String district, String sector, ServiceType service) {
         if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("Email already registered");
         }
 
+        ResolvedLocation location = locationDirectory.resolve(district, sector);
         User superAdmin = User.builder()
                 .email(email)
-                .password(passwordEncoder.encode(password))
+                .password(passwordHasher.encode(password))
                 .fullName(fullName)
                 .telephone(telephone)
-                .district(district)
-                .sector(sector)
+                .district(location.district())
+                .sector(location.sector())
+                .districtCode(location.districtCode())
+                .sectorCode(location.sectorCode())
                 .service(service)
                 .role(UserRole.SUPER_ADMIN)
                 .isActive(true)
                 .build();
 
-        User savedSuperAdmin = userRepository.save(superAdmin);
+        User savedSuperAdmin = new TransactionTemplate(transactionManager).execute(status -> {
+            User saved = userRepository.save(superAdmin);
+            accountInvalidationBus.publish(saved.getId(), saved.getEmail());
+            return saved;
+        });
         log.info("New super admin created: {}", savedSuperAdmin.getEmail());
 
         return convertToAuthResponse(savedSuperAdmin);
@@ -161,11 +313,44 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public AuthResponse getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        CachedUser user = userAccountCache.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
         return convertToAuthResponse(user);
     }
 
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static CursorPage<UserResponse> toCursorPage(List<UserSummary> rows, int pageSize, Long total) {
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            UserSummary last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.createdAt(), last.id()).encode();
+        }
+        return CursorPage.<UserResponse>builder()
+                .items(page.stream().map(UserResponse::fromSummary).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .approximateTotal(total)
+                .build();
+    }
+
+    private AuthResponse convertToAuthResponse(CachedUser user) {
+        return AuthResponse.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .telephone(user.getTelephone())
+                .district(user.getDistrict())
+                .sector(user.getSector())
+                .role(user.getRole())
+                .service(user.getService())
+                .build();
+    }
+
     private AuthResponse convertToAuthResponse(User user) {
         return AuthResponse.builder()
                 .id(user.getId())
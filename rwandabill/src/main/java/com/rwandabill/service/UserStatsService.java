@@ -0,0 +1,99 @@
+package com.rwandabill.service;
+
+import com.rwandabill.dto.UserStatsBucket;
+import com.rwandabill.dto.UserStatsResponse;
+import com.rwandabill.entity.ApprovalState;
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.entity.UserRole;
+import com.rwandabill.exception.InvalidLocationException;
+import com.rwandabill.location.District;
+import com.rwandabill.location.LocationDirectory;
+import com.rwandabill.repository.UserStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dashboard statistics read from the trigger-maintained user_stats counters, so a dashboard load reads
+ * one row per non-empty bucket. Roll-ups per dimension are summed from the buckets in memory.
+ */
+@Service
+@Slf4j
+public class UserStatsService {
+
+    private final UserStatsRepository userStatsRepository;
+    private final LocationDirectory locationDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter driftCounter;
+
+    public UserStatsService(UserStatsRepository userStatsRepository,
+                            LocationDirectory locationDirectory,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.userStatsRepository = userStatsRepository;
+        this.locationDirectory = locationDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.driftCounter = Counter.builder("user.stats.reconciled")
+                .description("Statistics buckets corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public UserStatsResponse getStats(String district) {
+        // Buckets are keyed by the stored name, which is the official spelling once resolved
+        String districtName = district == null ? null : locationDirectory.findDistrict(district)
+                .map(District::name)
+                .orElseThrow(() -> new InvalidLocationException("Unknown district: " + district));
+        List<UserStatsBucket> buckets = userStatsRepository.findBuckets(districtName);
+
+        long total = 0;
+        Map<UserRole, Long> byRole = new EnumMap<>(UserRole.class);
+        Map<ApprovalState, Long> byApprovalState = new EnumMap<>(ApprovalState.class);
+        Map<ServiceType, Long> byService = new EnumMap<>(ServiceType.class);
+        Map<String, Long> byDistrict = new TreeMap<>();
+        for (UserStatsBucket bucket : buckets) {
+            total += bucket.count();
+            byRole.merge(bucket.role(), bucket.count(), Long::sum);
+            byApprovalState.merge(bucket.approvalState(), bucket.count(), Long::sum);
+            if (bucket.service() != null) {
+                byService.merge(bucket.service(), bucket.count(), Long::sum);
+            }
+            byDistrict.merge(bucket.district(), bucket.count(), Long::sum);
+        }
+
+        return UserStatsResponse.builder()
+                .total(total)
+                .byRole(byRole)
+                .byApprovalState(byApprovalState)
+                .byService(byService)
+                .byDistrict(byDistrict)
+                .buckets(buckets)
+                .build();
+    }
+
+    // Safety net for counters changed outside the triggers (manual fixes, disabled triggers, restores)
+    @Scheduled(cron = "${user-stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        Integer corrected = transactionTemplate.execute(status -> userStatsRepository.reconcile());
+        if (corrected == null || corrected < 0) {
+            log.debug("User statistics reconciliation skipped, another node is running it");
+        } else if (corrected > 0) {
+            driftCounter.increment(corrected);
+            log.warn("User statistics reconciliation corrected {} buckets", corrected);
+        } else {
+            log.debug("User statistics are consistent");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.rwandabill.tariff;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money helpers. Amounts are longs in centimes (1/100 RWF); tiered charges are accumulated in
+ * centime-liters per m3 (1/100,000 RWF) so nothing is rounded until the final amount.
+ */
+public final class Money {
+
+    public static final long CENTIMES_PER_FRANC = 100;
+    public static final long LITERS_PER_M3 = 1000;
+
+    private Money() {
+    }
+
+    /**
+     * Parses a franc amount with at most two decimals ("402", "852.50") into centimes, exactly.
+     */
+    public static long parseCentimes(String francs) {
+        try {
+            return new BigDecimal(francs.trim()).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("More than two decimals: " + francs);
+        }
+    }
+
+    /**
+     * Parses a volume in m3 with at most three decimals into liters, exactly.
+     */
+    public static long parseLiters(String cubicMeters) {
+        try {
+            return new BigDecimal(cubicMeters.trim()).movePointRight(3).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("More than three decimals: " + cubicMeters);
+        }
+    }
+
+    /**
+     * Formats liters as m3 without trailing zeros ("12.5"), the inverse of {@link #parseLiters(String)}.
+     */
+    public static String formatCubicMeters(long liters) {
+        return BigDecimal.valueOf(liters, 3).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * {@code value / divisor} rounded half up, for non-negative values.
+     */
+    public static long divideHalfUp(long value, long divisor) {
+        return (value + divisor / 2) / divisor;
+    }
+}
@@ -0,0 +1,92 @@
+package com.rwandabill.tariff;
+
+import com.rwandabill.exception.InvalidTariffException;
+import com.rwandabill.location.LocationDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * Holds the current {@link TariffTable}, compiled from {@code tariffs.location} at startup. When the
+ * definitions change on disk, or on an explicit {@link #reload()}, a new table is compiled and swapped in
+ * atomically; definitions that do not compile are rejected and the previous table stays in use.
+ */
+@Component
+@Slf4j
+public class TariffRegistry {
+
+    private final Resource resource;
+    private final LocationDirectory locationDirectory;
+    private volatile TariffTable table;
+    private volatile Instant loadedAt;
+    private volatile long lastModified;
+
+    public TariffRegistry(ResourceLoader resourceLoader,
+                          LocationDirectory locationDirectory,
+                          @Value("${tariffs.location:classpath:reference/tariffs.csv}") String location) {
+        this.resource = resourceLoader.getResource(location);
+        this.locationDirectory = locationDirectory;
+        // Invalid definitions at startup are fatal: there is no previous table to fall back on
+        reload();
+    }
+
+    public TariffTable current() {
+        return table;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${tariffs.reload-interval:PT1M}")
+    public void reloadIfModified() {
+        if (lastModified() != lastModified) {
+            try {
+                reload();
+            } catch (InvalidTariffException e) {
+                log.error("Keeping tariffs {}: {}", table.getVersion(), e.getMessage());
+            }
+        }
+    }
+
+    public synchronized TariffTable reload() {
+        long modified = lastModified();
+        byte[] content;
+        try (InputStream in = resource.getInputStream()) {
+            content = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read tariffs from " + resource, e);
+        }
+        TariffTable compiled;
+        try {
+            compiled = TariffTable.compile(content, locationDirectory);
+        } catch (IllegalArgumentException e) {
+            // Not retried until the file changes again
+            lastModified = modified;
+            throw new InvalidTariffException("Invalid tariffs in " + resource + ": " + e.getMessage(), e);
+        }
+        lastModified = modified;
+        if (table == null || !table.getVersion().equals(compiled.getVersion())) {
+            table = compiled;
+            loadedAt = Instant.now();
+            log.info("Loaded tariffs {} from {}", compiled.getVersion(), resource);
+        }
+        return table;
+    }
+
+    private long lastModified() {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.rwandabill.tariff;
+
+import com.rwandabill.entity.ServiceType;
+import com.rwandabill.location.District;
+import com.rwandabill.location.LocationDirectory;
+import com.rwandabill.location.Sector;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tariff definitions compiled into immutable lookup tables. Every (service, district) and every
+ * (service, sector) with an override resolves to a schedule index at compile time; a schedule is a fixed
+ * fee plus consumption bands, stored in parallel primitive arrays. Pricing a bill is two array lookups and
+ * a loop over a handful of bands, with no allocation and exact integer arithmetic.
+ * <p>
+ * Instances are immutable and safe to share; a reload builds a new table (see {@link TariffRegistry}).
+ */
+public final class TariffTable {
+
+    private static final int NO_SCHEDULE = -1;
+    private static final long[] NO_BANDS = new long[0];
+    private static final int SERVICES = ServiceType.values().length;
+
+    // [service][code] -> schedule index
+    private final int[][] scheduleByDistrict;
+    private final int[][] scheduleBySector;
+    // [schedule]
+    private final long[] fixedCentimes;
+    private final long[][] bandStartLiters;
+    private final long[][] bandCentimesPerM3;
+    private final String version;
+
+    private TariffTable(int[][] scheduleByDistrict, int[][] scheduleBySector, long[] fixedCentimes,
+                        long[][] bandStartLiters, long[][] bandCentimesPerM3, String version) {
+        this.scheduleByDistrict = scheduleByDistrict;
+        this.scheduleBySector = scheduleBySector;
+        this.fixedCentimes = fixedCentimes;
+        this.bandStartLiters = bandStartLiters;
+        this.bandCentimesPerM3 = bandCentimesPerM3;
+        this.version = version;
+    }
+
+    /**
+     * Monthly charge in whole RWF (rounded half up) for an account of {@code service} in the given
+     * district and sector that consumed {@code liters}. Pass a negative {@code sectorCode} when the sector
+     * is unknown.
+     *
+     * @throws IllegalArgumentException if no tariff covers the service in that district
+     */
+    public long charge(ServiceType service, short districtCode, int sectorCode, long liters) {
+        int schedule = schedule(service, districtCode, sectorCode);
+        long total = Math.multiplyExact(fixedCentimes[schedule], Money.LITERS_PER_M3);
+        long[] starts = bandStartLiters[schedule];
+        long[] rates = bandCentimesPerM3[schedule];
+        for (int i = 0; i < starts.length && liters > starts[i]; i++) {
+            long end = i + 1 < starts.length ? Math.min(liters, starts[i + 1]) : liters;
+            total = Math.addExact(total, Math.multiplyExact(end - starts[i], rates[i]));
+        }
+        return Money.divideHalfUp(total, Money.LITERS_PER_M3 * Money.CENTIMES_PER_FRANC);
+    }
+
+    /**
+     * Whether {@code service} has a tariff in the district, either its own or the national default.
+     */
+    public boolean covers(ServiceType service, short districtCode) {
+        int[] byDistrict = scheduleByDistrict[service.ordinal()];
+        return districtCode >= 0 && districtCode < byDistrict.length && byDistrict[districtCode] != NO_SCHEDULE;
+    }
+
+    /**
+     * Content hash of the definitions the table was compiled from.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    private int schedule(ServiceType service, short districtCode, int sectorCode) {
+        int[] bySector = scheduleBySector[service.ordinal()];
+        if (sectorCode >= 0 && sectorCode < bySector.length && bySector[sectorCode] != NO_SCHEDULE) {
+            return bySector[sectorCode];
+        }
+        int[] byDistrict = scheduleByDistrict[service.ordinal()];
+        if (districtCode >= 0 && districtCode < byDistrict.length && byDistrict[districtCode] != NO_SCHEDULE) {
+            return byDistrict[districtCode];
+        }
+        throw new IllegalArgumentException("No " + service + " tariff for district " + districtCode);
+    }
+
+    /**
+     * Parses and compiles tariff definitions (see {@code reference/tariffs.csv} for the format). Place
+     * names are resolved against {@code locations}.
+     *
+     * @throws IllegalArgumentException naming the offending line if the definitions are invalid
+     */
+    public static TariffTable compile(byte[] content, LocationDirectory locations) {
+        List<Rule> rules = parse(content, locations);
+
+        int maxDistrict = 0;
+        int maxSector = 0;
+        for (District district : locations.getDistricts()) {
+            maxDistrict = Math.max(maxDistrict, district.code());
+            for (Sector sector : district.sectors()) {
+                maxSector = Math.max(maxSector, sector.code());
+            }
+        }
+
+        Compiler compiler = new Compiler();
+        int[][] byDistrict = new int[SERVICES][maxDistrict + 1];
+        int[][] bySector = new int[SERVICES][maxSector + 1];
+        for (ServiceType service : ServiceType.values()) {
+            int s = service.ordinal();
+            Arrays.fill(byDistrict[s], NO_SCHEDULE);
+            Arrays.fill(bySector[s], NO_SCHEDULE);
+            Spec national = Spec.of(rules, service, null, null);
+            for (District district : locations.getDistricts()) {
+                Spec districtSpec = Spec.of(rules, service, district.code(), null).inheritFrom(national);
+                byDistrict[s][district.code()] = compiler.add(districtSpec);
+                for (Sector sector : district.sectors()) {
+                    Spec sectorSpec = Spec.of(rules, service, district.code(), sector.code());
+                    if (!sectorSpec.isEmpty()) {
+                        bySector[s][sector.code()] = compiler.add(sectorSpec.inheritFrom(districtSpec));
+                    }
+                }
+            }
+        }
+        return new TariffTable(byDistrict, bySector,
+                compiler.fixed.stream().mapToLong(Long::longValue).toArray(),
+                compiler.starts.toArray(long[][]::new),
+                compiler.rates.toArray(long[][]::new),
+                sha256(content));
+    }
+
+    private static List<Rule> parse(byte[] content, LocationDirectory locations) {
+        List<Rule> rules = new ArrayList<>();
+        Map<String, Integer> seen = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                try {
+                    Rule rule = Rule.parse(line, locations);
+                    Integer previous = seen.putIfAbsent(rule.key(), lineNumber);
+                    if (previous != null) {
+                        throw new IllegalArgumentException("duplicates line " + previous);
+                    }
+                    rules.add(rule);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Tariff line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rules;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * One definition line. {@code bandStartLiters} is null for a fixed fee.
+     */
+    private record Rule(ServiceType service, Integer districtCode, Integer sectorCode, Long bandStartLiters,
+                        long centimes) {
+
+        static Rule parse(String line, LocationDirectory locations) {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 5) {
+                throw new IllegalArgumentException("expected 5 fields, found " + fields.length);
+            }
+            ServiceType service = ServiceType.valueOf(fields[0].trim());
+            Integer districtCode = null;
+            Integer sectorCode = null;
+            if (!fields[1].isBlank()) {
+                District district = locations.findDistrict(fields[1])
+                        .orElseThrow(() -> new IllegalArgumentException("unknown district " + fields[1]));
+                districtCode = district.code();
+                if (!fields[2].isBlank()) {
+                    sectorCode = locations.findSector(district.code(), fields[2])
+                            .orElseThrow(() -> new IllegalArgumentException("unknown sector " + fields[2]))
+                            .code();
+                }
+            } else if (!fields[2].isBlank()) {
+                throw new IllegalArgumentException("sector without district");
+            }
+            Long bandStart = fields[3].isBlank() ? null : Money.parseLiters(fields[3]);
+            long centimes = Money.parseCentimes(fields[4]);
+            if (centimes < 0 || (bandStart != null && bandStart < 0)) {
+                throw new IllegalArgumentException("negative value");
+            }
+            return new Rule(service, districtCode, sectorCode, bandStart, centimes);
+        }
+
+        String key() {
+            return service + "/" + districtCode + "/" + sectorCode + "/"
+                    + (bandStartLiters != null ? bandStartLiters : "fixed");
+        }
+    }
+
+    /**
+     * The fixed fee and bands defined at one scope; either may be missing and is then inherited.
+     */
+    private record Spec(Long fixedCentimes, long[] bandStarts, long[] bandRates) {
+
+        static Spec of(List<Rule> rules, ServiceType service, Integer districtCode, Integer sectorCode) {
+            Long fixed = null;
+            List<Rule> bands = new ArrayList<>();
+            for (Rule rule : rules) {
+                if (rule.service() != service || !Objects.equals(rule.districtCode(), districtCode)
+                        || !Objects.equals(rule.sectorCode(), sectorCode)) {
+                    continue;
+                }
+                if (rule.bandStartLiters() == null) {
+                    fixed = rule.centimes();
+                } else {
+                    bands.add(rule);
+                }
+            }
+            if (bands.isEmpty()) {
+                return new Spec(fixed, null, null);
+            }
+            bands.sort((a, b) -> Long.compare(a.bandStartLiters(), b.bandStartLiters()));
+            if (bands.get(0).bandStartLiters() != 0) {
+                throw new IllegalArgumentException(service + " bands for district " + districtCode
+                        + ", sector " + sectorCode + " must start at 0 m3");
+            }
+            return new Spec(fixed,
+                    bands.stream().mapToLong(Rule::bandStartLiters).toArray(),
+                    bands.stream().mapToLong(Rule::centimes).toArray());
+        }
+
+        boolean isEmpty() {
+            return fixedCentimes == null && bandStarts == null;
+        }
+
+        Spec inheritFrom(Spec parent) {
+            return new Spec(fixedCentimes != null ? fixedCentimes : parent.fixedCentimes,
+                    bandStarts != null ? bandStarts : parent.bandStarts,
+                    bandStarts != null ? bandRates : parent.bandRates);
+        }
+    }
+
+    private static final class Compiler {
+        private final List<Long> fixed = new ArrayList<>();
+        private final List<long[]> starts = new ArrayList<>();
+        private final List<long[]> rates = new ArrayList<>();
+
+        int add(Spec spec) {
+            if (spec.isEmpty()) {
+                return NO_SCHEDULE;
+            }
+            fixed.add(spec.fixedCentimes() != null ? spec.fixedCentimes() : 0L);
+            starts.add(spec.bandStarts() != null ? spec.bandStarts() : NO_BANDS);
+            rates.add(spec.bandRates() != null ? spec.bandRates() : NO_BANDS);
+            return fixed.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- District and sector codes from reference/rwanda-locations.csv. Nullable: existing rows are filled in by
+-- LocationBackfill at startup, and sector codes stay null for districts whose sectors are not listed.
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS district_code SMALLINT,
+    ADD COLUMN IF NOT EXISTS sector_code INTEGER;
+
+ALTER TABLE admins
+    ADD COLUMN IF NOT EXISTS district_code SMALLINT,
+    ADD COLUMN IF NOT EXISTS sector_code INTEGER;
+
+ALTER TABLE superadmins
+    ADD COLUMN IF NOT EXISTS district_code SMALLINT,
+    ADD COLUMN IF NOT EXISTS sector_code INTEGER;
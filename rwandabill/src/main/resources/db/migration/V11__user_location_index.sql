@@ -0,0 +1,4 @@
+-- Location filters on users (district_code = ? [AND sector_code = ?]). Built CONCURRENTLY, so Flyway runs
+-- this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_location
+    ON users (district_code, sector_code);
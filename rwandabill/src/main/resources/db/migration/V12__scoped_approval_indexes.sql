@@ -0,0 +1,9 @@
+-- Scoped queues: admins page through, count and claim the pending users of their own service and district
+-- (approved = false AND role = ? AND service = ? AND district_code = ? ORDER BY created_at, id), and list
+-- them without the pending condition. Built CONCURRENTLY, so Flyway runs this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_pending_scope_created
+    ON users (role, service, district_code, created_at, id)
+    WHERE approved = false;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_scope_created
+    ON users (role, service, district_code, created_at, id);
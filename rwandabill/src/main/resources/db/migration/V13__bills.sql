@@ -0,0 +1,41 @@
+-- Bills and the bill runs that generate them. A run covers one billing period and is split into one
+-- partition per (district, service); partitions checkpoint the last user id they billed so a run can
+-- resume where it stopped. Amounts are whole Rwandan francs.
+
+CREATE TABLE bill_runs (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    period      DATE NOT NULL,
+    status      VARCHAR(20) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+    started_by  VARCHAR(255),
+    started_at  TIMESTAMP(6) NOT NULL,
+    finished_at TIMESTAMP(6),
+    CONSTRAINT uk_bill_runs_period UNIQUE (period)
+);
+
+CREATE TABLE bill_run_partitions (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    run_id        BIGINT NOT NULL REFERENCES bill_runs (id),
+    district_code SMALLINT NOT NULL,
+    service       VARCHAR(255) NOT NULL CHECK (service IN ('WATER', 'SANITATION', 'SECURITY')),
+    status        VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'RUNNING', 'DONE', 'FAILED')),
+    last_user_id  BIGINT DEFAULT 0 NOT NULL,
+    bills_created BIGINT DEFAULT 0 NOT NULL,
+    error         VARCHAR(1000),
+    updated_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_bill_run_partitions_scope UNIQUE (run_id, district_code, service)
+);
+
+CREATE TABLE bills (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id       BIGINT NOT NULL REFERENCES users (id),
+    bill_run_id   BIGINT REFERENCES bill_runs (id),
+    service       VARCHAR(255) NOT NULL CHECK (service IN ('WATER', 'SANITATION', 'SECURITY')),
+    period        DATE NOT NULL,
+    district_code SMALLINT NOT NULL,
+    amount        BIGINT NOT NULL CHECK (amount >= 0),
+    status        VARCHAR(20) NOT NULL CHECK (status IN ('ISSUED', 'PAID', 'CANCELLED')),
+    due_date      DATE NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    -- One bill per user, service and period; re-running a period inserts nothing twice
+    CONSTRAINT uk_bills_user_service_period UNIQUE (user_id, service, period)
+);
@@ -0,0 +1,6 @@
+-- Bill run partitions walk the billable users of one district and service in id order
+-- (role = 'USER' AND approved AND is_active AND district_code = ? AND service = ? AND id > ? ORDER BY id).
+-- Built CONCURRENTLY, so Flyway runs this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_billable
+    ON users (district_code, service, id)
+    WHERE role = 'USER' AND approved = true AND is_active = true;
@@ -0,0 +1,17 @@
+-- Water meter readings. reading_liters is the meter's cumulative register; consumption_liters is the usage
+-- since the customer's previous reading over interval_days, and is what WATER bills are charged on. Both
+-- are NULL for a first reading, and consumption is also NULL when the register went backwards.
+-- The unique constraint doubles as the (user_id, read_on) index used for history lookups and billing.
+
+CREATE TABLE meter_readings (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id            BIGINT NOT NULL REFERENCES users (id),
+    read_on            DATE NOT NULL,
+    reading_liters     BIGINT NOT NULL CHECK (reading_liters >= 0),
+    consumption_liters BIGINT CHECK (consumption_liters >= 0),
+    interval_days      INTEGER CHECK (interval_days > 0),
+    anomaly            VARCHAR(30) CHECK (anomaly IN ('NEGATIVE_USAGE', 'SPIKE')),
+    import_id          VARCHAR(36),
+    created_at         TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_meter_readings_user_read_on UNIQUE (user_id, read_on)
+);
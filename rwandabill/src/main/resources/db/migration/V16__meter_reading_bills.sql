@@ -0,0 +1,3 @@
+-- The bill that charged a reading's usage. WATER bill runs charge every reading with usage that is not
+-- billed yet, so readings uploaded after their month's run go on the next bill instead of being lost.
+ALTER TABLE meter_readings ADD COLUMN IF NOT EXISTS bill_id BIGINT REFERENCES bills (id);
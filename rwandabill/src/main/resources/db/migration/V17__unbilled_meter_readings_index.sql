@@ -0,0 +1,6 @@
+-- WATER bill runs look up the unbilled usage of a chunk of customers
+-- (user_id = ANY(?) AND bill_id IS NULL AND consumption_liters IS NOT NULL AND read_on < ?).
+-- Built CONCURRENTLY, so Flyway runs this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_meter_readings_unbilled
+    ON meter_readings (user_id, read_on)
+    WHERE bill_id IS NULL AND consumption_liters IS NOT NULL;
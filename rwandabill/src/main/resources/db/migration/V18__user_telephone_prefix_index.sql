@@ -0,0 +1,5 @@
+-- User search looks up phone number prefixes (telephone LIKE '078%') on this index rather than ranking
+-- every trigram match of a short digit string. text_pattern_ops makes LIKE prefixes indexable whatever
+-- the database collation. Built CONCURRENTLY, so Flyway runs this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_telephone_prefix
+    ON users (telephone text_pattern_ops);
@@ -0,0 +1,62 @@
+-- Schema as previously generated by ddl-auto=update. Databases created that way are baselined at
+-- this version (spring.flyway.baseline-on-migrate) and only receive later migrations.
+
+CREATE TABLE users (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email              VARCHAR(255) NOT NULL,
+    password           VARCHAR(255) NOT NULL,
+    full_name          VARCHAR(255) NOT NULL,
+    telephone          VARCHAR(255) NOT NULL,
+    district           VARCHAR(255) NOT NULL,
+    sector             VARCHAR(255) NOT NULL,
+    role               VARCHAR(255) NOT NULL CHECK (role IN ('SUPER_ADMIN', 'ADMIN', 'USER')),
+    service            VARCHAR(255) CHECK (service IN ('WATER', 'SANITATION', 'SECURITY')),
+    is_active          BOOLEAN NOT NULL,
+    created_at         TIMESTAMP(6) NOT NULL,
+    updated_at         TIMESTAMP(6) NOT NULL,
+    approved           BOOLEAN NOT NULL,
+    approved_at        TIMESTAMP(6),
+    approved_by        BIGINT,
+    rejection_reason   VARCHAR(500),
+    email_verified     BOOLEAN NOT NULL,
+    verification_token VARCHAR(64),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT fk_users_approved_by FOREIGN KEY (approved_by) REFERENCES users (id)
+);
+
+CREATE TABLE admins (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email          VARCHAR(255) NOT NULL,
+    password       VARCHAR(255) NOT NULL,
+    full_name      VARCHAR(255) NOT NULL,
+    telephone      VARCHAR(255) NOT NULL,
+    district       VARCHAR(255) NOT NULL,
+    sector         VARCHAR(255) NOT NULL,
+    role           VARCHAR(255) NOT NULL CHECK (role IN ('SUPER_ADMIN', 'ADMIN', 'USER')),
+    service        VARCHAR(255) NOT NULL CHECK (service IN ('WATER', 'SANITATION', 'SECURITY')),
+    is_active      BOOLEAN NOT NULL,
+    email_verified BOOLEAN NOT NULL,
+    approved       BOOLEAN NOT NULL,
+    approved_at    TIMESTAMP(6),
+    approved_by    VARCHAR(255),
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_admins_email UNIQUE (email)
+);
+
+CREATE TABLE superadmins (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email          VARCHAR(255) NOT NULL,
+    password       VARCHAR(255) NOT NULL,
+    full_name      VARCHAR(255) NOT NULL,
+    telephone      VARCHAR(255) NOT NULL,
+    district       VARCHAR(255) NOT NULL,
+    sector         VARCHAR(255) NOT NULL,
+    role           VARCHAR(255) NOT NULL CHECK (role IN ('SUPER_ADMIN', 'ADMIN', 'USER')),
+    is_active      BOOLEAN NOT NULL,
+    approved       BOOLEAN NOT NULL,
+    email_verified BOOLEAN NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_superadmins_email UNIQUE (email)
+);
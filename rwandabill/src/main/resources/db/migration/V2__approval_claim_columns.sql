@@ -0,0 +1,6 @@
+-- Approval claim leases and optimistic locking on users. Added here rather than in V1 so databases
+-- baselined from the former ddl-auto=update schema receive them too.
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS claimed_by       VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP(6),
+    ADD COLUMN IF NOT EXISTS version          BIGINT DEFAULT 0 NOT NULL;
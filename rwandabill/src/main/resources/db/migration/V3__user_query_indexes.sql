@@ -0,0 +1,20 @@
+-- Indexes for the queries in UserRepository and UserJdbcRepository. Built CONCURRENTLY so an existing
+-- users table stays writable; Flyway runs this script outside a transaction.
+
+-- Pending approvals: keyset pages, claim queue and pending counts (approved = false AND role = ?
+-- ORDER BY created_at, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_pending_role_created
+    ON users (role, created_at, id)
+    WHERE approved = false;
+
+-- Role listings and exports (role = ? ORDER BY created_at, id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_role_created
+    ON users (role, created_at, id);
+
+-- Approver joins, and the foreign key check when an approver row is deleted
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_approved_by
+    ON users (approved_by);
+
+-- Case-insensitive email lookups
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower
+    ON users (lower(email));
@@ -0,0 +1,28 @@
+-- Stores every email trimmed and lower-cased, the form EmailCanonicalizer produces for writes and lookups.
+
+-- Addresses that only differ by case or surrounding spaces would collide; stop with the list rather
+-- than silently merging accounts
+DO $$
+DECLARE
+    clashes TEXT;
+BEGIN
+    SELECT string_agg(source || ': ' || canonical, ', ') INTO clashes
+    FROM (
+        SELECT 'users' AS source, lower(trim(email)) AS canonical
+        FROM users GROUP BY lower(trim(email)) HAVING count(*) > 1
+        UNION ALL
+        SELECT 'admins', lower(trim(email))
+        FROM admins GROUP BY lower(trim(email)) HAVING count(*) > 1
+        UNION ALL
+        SELECT 'superadmins', lower(trim(email))
+        FROM superadmins GROUP BY lower(trim(email)) HAVING count(*) > 1
+    ) duplicates;
+
+    IF clashes IS NOT NULL THEN
+        RAISE EXCEPTION 'Resolve accounts whose emails differ only by case or spaces before migrating: %', clashes;
+    END IF;
+END $$;
+
+UPDATE users SET email = lower(trim(email)) WHERE email <> lower(trim(email));
+UPDATE admins SET email = lower(trim(email)) WHERE email <> lower(trim(email));
+UPDATE superadmins SET email = lower(trim(email)) WHERE email <> lower(trim(email));
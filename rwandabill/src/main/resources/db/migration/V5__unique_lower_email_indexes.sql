@@ -0,0 +1,6 @@
+-- Case-insensitive uniqueness; also the index every email lookup and ON CONFLICT (lower(email)) uses.
+-- Built CONCURRENTLY, so Flyway runs this script outside a transaction.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_users_email_lower ON users (lower(email));
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_admins_email_lower ON admins (lower(email));
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_superadmins_email_lower ON superadmins (lower(email));
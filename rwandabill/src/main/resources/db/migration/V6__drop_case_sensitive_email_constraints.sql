@@ -0,0 +1,22 @@
+-- The lower(email) unique indexes from V5 supersede the plain unique constraints on email (named by
+-- Hibernate on databases that predate the migrations, hence the catalog lookup) and the non-unique
+-- lower(email) index from V3.
+
+DO $$
+DECLARE
+    constraint_row RECORD;
+BEGIN
+    FOR constraint_row IN
+        SELECT rel.relname AS table_name, con.conname AS constraint_name
+        FROM pg_constraint con
+        JOIN pg_class rel ON rel.oid = con.conrelid
+        JOIN pg_attribute att ON att.attrelid = rel.oid AND att.attname = 'email'
+        WHERE con.contype = 'u'
+          AND rel.relname IN ('users', 'admins', 'superadmins')
+          AND con.conkey = ARRAY[att.attnum]
+    LOOP
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', constraint_row.table_name, constraint_row.constraint_name);
+    END LOOP;
+END $$;
+
+DROP INDEX IF EXISTS idx_users_email_lower;
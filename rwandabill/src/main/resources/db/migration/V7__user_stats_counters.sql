@@ -0,0 +1,95 @@
+-- Account counts per (district, sector, service, role, approval state), kept current by statement-level
+-- triggers on users, admins and superadmins. Each write adjusts its buckets in the same transaction, so
+-- dashboard reads cost one row per bucket instead of an aggregate over the account tables.
+
+CREATE TABLE user_stats (
+    district       VARCHAR(255) NOT NULL,
+    sector         VARCHAR(255) NOT NULL,
+    service        VARCHAR(255) NOT NULL DEFAULT '',  -- '' = no service
+    role           VARCHAR(255) NOT NULL,
+    approval_state VARCHAR(16)  NOT NULL,
+    user_count     BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT pk_user_stats PRIMARY KEY (district, sector, service, role, approval_state)
+);
+
+-- Works on a row of any of the three account tables; columns a table lacks read as NULL
+CREATE FUNCTION user_stats_approval_state(account JSONB) RETURNS VARCHAR AS $$
+    SELECT CASE
+               WHEN (account ->> 'approved')::BOOLEAN THEN 'APPROVED'
+               WHEN account ->> 'rejection_reason' IS NOT NULL THEN 'REJECTED'
+               ELSE 'PENDING'
+           END
+$$ LANGUAGE sql IMMUTABLE;
+
+-- changes: JSON array of account rows, each carrying the stats_delta (+1 or -1) it contributes
+CREATE FUNCTION user_stats_apply(changes JSONB) RETURNS VOID AS $$
+    INSERT INTO user_stats AS s (district, sector, service, role, approval_state, user_count)
+    SELECT c.account ->> 'district',
+           c.account ->> 'sector',
+           COALESCE(c.account ->> 'service', ''),
+           c.account ->> 'role',
+           user_stats_approval_state(c.account),
+           SUM((c.account ->> 'stats_delta')::INT)
+    FROM jsonb_array_elements(changes) AS c(account)
+    GROUP BY 1, 2, 3, 4, 5
+    HAVING SUM((c.account ->> 'stats_delta')::INT) <> 0
+    ON CONFLICT (district, sector, service, role, approval_state)
+        DO UPDATE SET user_count = s.user_count + EXCLUDED.user_count
+$$ LANGUAGE sql;
+
+CREATE FUNCTION user_stats_on_insert() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM user_stats_apply((SELECT jsonb_agg(to_jsonb(n) || '{"stats_delta": 1}') FROM new_rows n));
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION user_stats_on_delete() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM user_stats_apply((SELECT jsonb_agg(to_jsonb(o) || '{"stats_delta": -1}') FROM old_rows o));
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- Old rows count -1 and new rows +1; updates that leave every dimension unchanged (claims, profile
+-- edits) net to zero and write nothing
+CREATE FUNCTION user_stats_on_update() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM user_stats_apply((
+        SELECT jsonb_agg(account)
+        FROM (SELECT to_jsonb(o) || '{"stats_delta": -1}' AS account FROM old_rows o
+              UNION ALL
+              SELECT to_jsonb(n) || '{"stats_delta": 1}' FROM new_rows n) changed));
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_stats_insert AFTER INSERT ON users
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_insert();
+CREATE TRIGGER users_stats_update AFTER UPDATE ON users
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_update();
+CREATE TRIGGER users_stats_delete AFTER DELETE ON users
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_delete();
+
+CREATE TRIGGER admins_stats_insert AFTER INSERT ON admins
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_insert();
+CREATE TRIGGER admins_stats_update AFTER UPDATE ON admins
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_update();
+CREATE TRIGGER admins_stats_delete AFTER DELETE ON admins
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_delete();
+
+CREATE TRIGGER superadmins_stats_insert AFTER INSERT ON superadmins
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_insert();
+CREATE TRIGGER superadmins_stats_update AFTER UPDATE ON superadmins
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_update();
+CREATE TRIGGER superadmins_stats_delete AFTER DELETE ON superadmins
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION user_stats_on_delete();
+
+-- Backfill from the rows that already exist
+INSERT INTO user_stats (district, sector, service, role, approval_state, user_count)
+SELECT account ->> 'district', account ->> 'sector', COALESCE(account ->> 'service', ''), account ->> 'role',
+       user_stats_approval_state(account), count(*)
+FROM (SELECT to_jsonb(u) AS account FROM users u
+      UNION ALL SELECT to_jsonb(a) FROM admins a
+      UNION ALL SELECT to_jsonb(s) FROM superadmins s) accounts
+GROUP BY 1, 2, 3, 4, 5;
@@ -0,0 +1,3 @@
+-- Trigram matching for user search. Needs a role allowed to create extensions (superuser, or the
+-- database owner on Postgres 13+ since pg_trgm is a trusted extension).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,5 @@
+-- One trigram index over everything an admin types into the search box. The expression must match
+-- UserSearchRepository.SEARCH_TEXT exactly for the planner to use it. Built CONCURRENTLY, so Flyway runs
+-- this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_search_trgm
+    ON users USING gin ((lower(full_name) || ' ' || telephone || ' ' || lower(email)) gin_trgm_ops);